@@ -0,0 +1,75 @@
+package com.github.alkhanm.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.wrapper.PageableResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+//Serialização das respostas e leitura de uma página (PageableResponse), com a mesma configuração do Jackson usada pelo Spring
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimeJsonBenchmark {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Anime anime = Anime.builder().id(1L).name("Naruto").version(0L).build();
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+        @Param({"20", "100"})
+        private int pageSize;
+
+        private ObjectReader reader;
+        private Page<Anime> page;
+        private String json;
+
+        @Setup
+        public void setUp(AnimeJsonBenchmark benchmark) throws JsonProcessingException {
+            reader = benchmark.objectMapper.readerFor(new TypeReference<PageableResponse<Anime>>() {});
+            List<Anime> animes = LongStream.rangeClosed(1, pageSize)
+                    .mapToObj(id -> Anime.builder().id(id).name("Anime " + id).version(0L).build())
+                    .collect(Collectors.toList());
+            page = new PageImpl<>(animes, PageRequest.of(0, pageSize), 10_000);
+            json = benchmark.objectMapper.writeValueAsString(page);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeAnime() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(anime);
+    }
+
+    @Benchmark
+    public byte[] serializePage(PageState state) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state.page);
+    }
+
+    @Benchmark
+    public PageableResponse<Anime> deserializePage(PageState state) throws JsonProcessingException {
+        return state.reader.readValue(state.json);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.alkhanm.benchmark;
+
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.mapper.AnimeMapper;
+import com.github.alkhanm.request.AnimePostRequestBody;
+import com.github.alkhanm.request.AnimePutRequestBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//Custo das conversões feitas pelo MapStruct a cada POST e PUT
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimeMapperBenchmark {
+    private final AnimePostRequestBody postRequestBody = new AnimePostRequestBody("Naruto");
+    private final AnimePutRequestBody putRequestBody = new AnimePutRequestBody(1L, "Naruto");
+
+    @Benchmark
+    public Anime toAnimeFromPost() {
+        return AnimeMapper.INSTANCE.toAnime(postRequestBody);
+    }
+
+    @Benchmark
+    public Anime toAnimeFromPut() {
+        return AnimeMapper.INSTANCE.toAnime(putRequestBody);
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.alkhanm.benchmark;
+
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.domain.MyUser;
+import com.github.alkhanm.repository.AnimeRepository;
+import com.github.alkhanm.repository.MyUserRepository;
+import com.github.alkhanm.request.AnimePostRequestBody;
+import com.github.alkhanm.service.AnimeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/* Latência (percentis p50, p90, p99, ...) das consultas do repositório com tabelas de 100 mil, 1 milhão e 10 milhões de linhas
+** Para uma única quantidade: -Djmh.args="AnimeRepositoryScale -p rows=1000000"
+** listAll carrega a tabela inteira na memória, com 10 milhões de linhas ele precisa de um heap de vários GB (-jvmArgsAppend -Xmx8g) */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AnimeRepositoryScaleBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000", "1000000", "10000000"})
+    private long rows;
+
+    private ConfigurableApplicationContext context;
+    private AnimeRepository repository;
+    private MyUserRepository userRepository;
+    private AnimeService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start(rows);
+        repository = context.getBean(AnimeRepository.class);
+        userRepository = context.getBean(MyUserRepository.class);
+        service = context.getBean(AnimeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDataset.reset(context, rows);
+        context.close();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public Page<Anime> findAllFirstPage() {
+        return repository.findAll(PageRequest.of(0, PAGE_SIZE));
+    }
+
+    //OFFSET próximo do fim da tabela: o banco de dados percorre e descarta todas as linhas anteriores
+    @Benchmark
+    public Page<Anime> findAllDeepPage() {
+        return repository.findAll(PageRequest.of((int) (rows / PAGE_SIZE) - 1, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Optional<Anime> findById() {
+        return repository.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Anime> findByName() {
+        return repository.findByName("Anime " + randomId());
+    }
+
+    @Benchmark
+    public List<MyUser> findUserByUsername() {
+        return userRepository.findByUsername("user" + randomId());
+    }
+
+    @Benchmark
+    public Anime save() {
+        return service.save(new AnimePostRequestBody("Anime " + randomId()));
+    }
+
+    //GET /animes/all
+    @Benchmark
+    public List<Anime> listAll() {
+        return service.listAll();
+    }
+
+    //GET /animes/all/stream
+    @Benchmark
+    public void exportAll(Blackhole blackhole) {
+        service.exportAll(blackhole::consume);
+    }
+}
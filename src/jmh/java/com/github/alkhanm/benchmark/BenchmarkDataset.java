@@ -0,0 +1,58 @@
+package com.github.alkhanm.benchmark;
+
+import com.github.alkhanm.Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+/* Sobe a aplicação (sem o servidor web) sobre um banco H2 em arquivo, em target/benchmark-db, e o popula com "rows" animes e usuários
+** Os dados são determinísticos e são reaproveitados nas próximas execuções enquanto a quantidade de linhas não mudar */
+final class BenchmarkDataset {
+    private BenchmarkDataset() {
+    }
+
+    static ConfigurableApplicationContext start(long rows) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                //Passadas como argumentos para terem prioridade sobre o application.yml
+                .run("--spring.datasource.url=jdbc:h2:file:./target/benchmark-db/anime-" + rows + ";MODE=MySQL",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.cache.type=none",
+                        "--anime.sql.enabled=false",
+                        //Sem o servidor web, a documentação (springdoc) não tem o que registrar
+                        "--springdoc.api-docs.enabled=false",
+                        "--logging.level.root=warn");
+        seed(context.getBean(JdbcTemplate.class), rows);
+        return context;
+    }
+
+    //Remove as linhas criadas pelo benchmark (saves), mantendo o banco igual para a próxima execução
+    static void reset(ConfigurableApplicationContext context, long rows) {
+        context.getBean(JdbcTemplate.class).update("delete from anime where id > ?", rows);
+    }
+
+    /* Um único INSERT ... SELECT sobre SYSTEM_RANGE por tabela, sem passar pelo JPA, insere milhões de linhas em segundos
+    ** A sequência é reposicionada para que os novos ids comecem depois dos animes gerados */
+    private static void seed(JdbcTemplate jdbcTemplate, long rows) {
+        Long animes = jdbcTemplate.queryForObject("select count(*) from anime", Long.class);
+        Long users = jdbcTemplate.queryForObject("select count(*) from my_user", Long.class);
+        if (animes != null && animes == rows && users != null && users == rows) return;
+
+        jdbcTemplate.execute("truncate table anime");
+        jdbcTemplate.execute("truncate table my_user");
+        jdbcTemplate.update("insert into anime (id, name, search_name, version) " +
+                "select x, concat('Anime ', x), concat('anime ', x), 0 from system_range(1, ?)", rows);
+        //Todos os usuários compartilham a mesma senha ("test"), o BCrypt é calculado uma única vez
+        String password = PasswordEncoderFactories.createDelegatingPasswordEncoder().encode("test");
+        jdbcTemplate.update("insert into my_user (name, username, password, authorities) " +
+                "select concat('User ', x), concat('user', x), ?, 'ROLE_USER' from system_range(1, ?)", password, rows);
+        //O Hibernate reserva os ids em blocos de 50 (allocationSize): o próximo bloco termina em rows + 50
+        jdbcTemplate.execute("alter sequence anime_sequence restart with " + (rows + 50));
+        jdbcTemplate.execute("analyze");
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.alkhanm.benchmark;
+
+import com.github.alkhanm.controller.AnimeController;
+import com.github.alkhanm.exception.BadRequestException;
+import com.github.alkhanm.handler.RestExceptionHandler;
+import com.github.alkhanm.request.AnimePostRequestBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/* Montagem dos corpos de erro. As exceções são criadas a cada operação, como acontece em uma requisição real,
+** então o resultado inclui o custo de preencher o stack trace das exceções do Spring (a BadRequestException não o preenche) */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestExceptionHandlerBenchmark {
+    private RestExceptionHandler handler;
+    private MethodParameter saveParameter;
+    private HttpInputMessage inputMessage;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new RestExceptionHandler();
+        inputMessage = new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return InputStream.nullInputStream();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return HttpHeaders.EMPTY;
+            }
+        };
+        saveParameter = new MethodParameter(AnimeController.class.getMethod("save", AnimePostRequestBody.class), 0);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> badRequest() {
+        return handler.handlerBadRequestException(new BadRequestException("Anime not found"));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> validation() throws Exception {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new AnimePostRequestBody(""), "anime");
+        bindingResult.addError(new FieldError("anime", "name", "The anime name cannot be empty"));
+        //O WebRequest não é usado na montagem dos corpos de erro
+        return handler.handleException(new MethodArgumentNotValidException(saveParameter, bindingResult), null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> messageNotReadable() throws Exception {
+        HttpMessageNotReadableException exception = new HttpMessageNotReadableException("JSON parse error",
+                new IOException("Unexpected character"), inputMessage);
+        return handler.handleException(exception, null);
+    }
+}
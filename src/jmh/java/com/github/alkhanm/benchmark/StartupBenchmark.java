@@ -0,0 +1,62 @@
+package com.github.alkhanm.benchmark;
+
+import com.github.alkhanm.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Tempo até a primeira requisição: sobe a aplicação completa (servidor web, JPA, segurança, springdoc) e responde um GET /animes
+** Cada medição é feita em uma JVM nova (fork), sem aquecimento, como acontece quando um container é reiniciado
+** Com o arquivo de classes compartilhadas: -Djmh.args="StartupBenchmark -jvmArgsAppend -XX:SharedArchiveFile=app.jsa" */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+    //"default" sobe a aplicação sem perfis, "fast-startup" ativa o perfil de inicialização rápida do application.yml
+    @Param({"default", "fast-startup"})
+    private String profile;
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException, InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class).run(args())) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/animes?size=1")).build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) throw new IllegalStateException("GET /animes -> " + response.statusCode());
+            return response.body().length();
+        }
+    }
+
+    private String[] args() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1;MODE=MySQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=warn"));
+        if (!"default".equals(profile)) args.add("--spring.profiles.active=" + profile);
+        return args.toArray(String[]::new);
+    }
+}
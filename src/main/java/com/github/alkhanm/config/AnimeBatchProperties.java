@@ -0,0 +1,18 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+//Configurações das operações em lote (anime.batch.* no application.yml)
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.batch")
+public class AnimeBatchProperties {
+    //Quantidade de operações enviadas ao banco de dados em cada lote JDBC
+    private int size = 50;
+    //Quantidade máxima de itens aceitos em uma única requisição
+    private int maxItems = 10_000;
+    //Quantidade máxima de ids na busca por vários animes (GET /animes?ids=...), todos são buscados em um único SELECT
+    private int maxIds = 100;
+}
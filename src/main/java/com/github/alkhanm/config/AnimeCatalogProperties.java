@@ -0,0 +1,18 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Cópia dos animes em memória usada pelas leituras (anime.catalog.* no application.yml)
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.catalog")
+public class AnimeCatalogProperties {
+    private boolean enabled = false;
+    /* As alterações feitas por esta instância são aplicadas logo após o commit,
+    ** as das demais instâncias só aparecem no próximo recarregamento completo */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+}
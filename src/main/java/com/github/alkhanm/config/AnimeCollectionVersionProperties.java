@@ -0,0 +1,17 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Versão de /animes/all guardada em memória (anime.collection-version.* no application.yml)
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.collection-version")
+public class AnimeCollectionVersionProperties {
+    /* As alterações feitas por esta instância atualizam a versão logo após o commit,
+    ** as das demais instâncias só aparecem na próxima sincronização com o banco de dados */
+    private Duration syncInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,89 @@
+package com.github.alkhanm.config;
+
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.domain.AnimeCollectionVersion;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/* Ajustes do banco de dados que o ddl-auto não faz, executados antes de a aplicação receber requisições
+** Sequência: os ids dos animes vêm de anime_sequence, reservados em blocos de Anime.ID_ALLOCATION_SIZE
+** Em um banco criado com IDENTITY, o ddl-auto cria a sequência começando em 1 e o primeiro INSERT repetiria um id existente,
+** então ela é avançada para depois do maior id, ou a inicialização falha
+** No MySQL a sequência é uma tabela (next_val), nos bancos com sequências (H2, PostgreSQL) ela é reiniciada
+** Marcador de alterações: a linha única de anime_collection_version, usada nos ETags das listas, é criada se não existir */
+@Log4j2
+@Component
+//Precisa ser executado mesmo com spring.main.lazy-initialization (perfil fast-startup)
+@Lazy(false)
+public class AnimeSchemaInitializer implements SmartInitializingSingleton {
+    private static final String SEQUENCE = "anime_sequence";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public AnimeSchemaInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    //Executado depois da criação dos beans e antes de o servidor web iniciar
+    @Override
+    public void afterSingletonsInstantiated() {
+        advanceSequence();
+        seedCollectionVersion();
+    }
+
+    /* Começa no horário atual, e não em 0: uma linha criada novamente não repete as versões dos ETags já entregues
+    ** Se outra instância criou a linha ao mesmo tempo, a chave duplicada é ignorada */
+    public void seedCollectionVersion() {
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from anime_collection_version where id = ?",
+                Integer.class, AnimeCollectionVersion.ID);
+        if (rows != null && rows > 0) return;
+        try {
+            jdbcTemplate.update("insert into anime_collection_version (id, version) values (?, ?)",
+                    AnimeCollectionVersion.ID, System.currentTimeMillis());
+        } catch (DuplicateKeyException e) {
+            log.debug("anime_collection_version was created by another instance");
+        }
+    }
+
+    //O Hibernate (otimizador pooled) usa o valor lido da sequência como o fim do bloco: ids de (valor - 49) até valor
+    public void advanceSequence() {
+        //Aguarda o EntityManagerFactory, que cria a sequência (ddl-auto), mesmo com a inicialização em segundo plano
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from anime", Long.class);
+        if (maxId == null) return;
+        long required = maxId + Anime.ID_ALLOCATION_SIZE;
+        try {
+            if (dialect.supportsSequences()) restartSequence(dialect, required);
+            else advanceTable(required);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException(SEQUENCE + " is behind max(id) = " + maxId + " and could not be advanced", e);
+        }
+    }
+
+    private void restartSequence(Dialect dialect, long required) {
+        //Consome um valor da sequência, apenas um bloco de ids deixa de ser usado
+        Long next = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(SEQUENCE), Long.class);
+        if (next == null || next >= required) return;
+        jdbcTemplate.execute("alter sequence " + SEQUENCE + " restart with " + required);
+        log.warn("{} was at {}, behind the existing ids, restarted with {}", SEQUENCE, next, required);
+    }
+
+    //A condição no UPDATE impede que uma instância iniciando ao mesmo tempo volte a sequência
+    private void advanceTable(long required) {
+        Long next = jdbcTemplate.queryForObject("select next_val from " + SEQUENCE, Long.class);
+        if (next == null || next >= required) return;
+        jdbcTemplate.update("update " + SEQUENCE + " set next_val = ? where next_val < ?", required, required);
+        log.warn("{} was at {}, behind the existing ids, advanced to {}", SEQUENCE, next, required);
+    }
+}
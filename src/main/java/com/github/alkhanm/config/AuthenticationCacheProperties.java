@@ -0,0 +1,18 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Configurações do cache de autenticações (anime.security.authentication-cache.* no application.yml)
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.security.authentication-cache")
+public class AuthenticationCacheProperties {
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    //Tempo máximo em que uma autenticação é reaproveitada sem verificar a senha novamente
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,19 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Agrupamento das buscas simultâneas por id em uma única consulta (anime.batch-loader.* no application.yml)
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.batch-loader")
+public class BatchLoaderProperties {
+    private boolean enabled = true;
+    //Quanto a primeira busca espera por outras antes de consultar o banco de dados
+    private Duration window = Duration.ofNanos(500_000);
+    //Com essa quantidade de ids a consulta é feita imediatamente, sem esperar o fim da janela
+    private int maxSize = 100;
+}
@@ -0,0 +1,14 @@
+package com.github.alkhanm.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/* O tamanho máximo, o TTL e a coleta de estatísticas dos caches são definidos em application.yml (spring.cache.*)
+ * As estatísticas são publicadas automaticamente pelo Actuator (cache.gets, cache.evictions, ...) */
+@Configuration
+// O cache envolve a transação, assim só é atualizado depois do commit (apenas as métricas dos services ficam por fora)
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE + 1)
+public class CacheConfig {
+    public static final String ANIMES_CACHE = "animes";
+}
@@ -0,0 +1,57 @@
+package com.github.alkhanm.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/* Execução de treino do arquivo de classes compartilhadas (perfil "cds" do Maven, ver pom.xml)
+** Assim que a aplicação fica pronta, faz algumas requisições para carregar também as classes da primeira requisição e encerra
+** A JVM, iniciada com -XX:ArchiveClassesAtExit, grava as classes carregadas no arquivo ao sair */
+@Log4j2
+@Component
+@ConditionalOnProperty("anime.startup.training-run")
+public class CdsTrainingRun {
+    private static final String[] PATHS = {"/animes?size=1", "/animes/1", "/actuator/health"};
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exit(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        Integer port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+        if (port != null) warmUp(port);
+        System.exit(SpringApplication.exit(context));
+    }
+
+    private void warmUp(int port) {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (String path : PATHS) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                log.info("CDS training run: GET {} -> {}", path, response.statusCode());
+            } catch (IOException e) {
+                //O arquivo é gravado mesmo que alguma requisição falhe, apenas com menos classes
+                log.warn("CDS training run: GET {} failed: {}", path, e.toString());
+            } catch (InterruptedException e) {
+                //Encerrando: as requisições restantes não são feitas
+                Thread.currentThread().interrupt();
+                log.warn("CDS training run interrupted before GET {}", path);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.alkhanm.config;
+
+import com.github.alkhanm.sql.ReadReplicas;
+import com.github.alkhanm.sql.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Quando existe um ConnectionFactory (R2DBC) o Spring Boot deixa de criar o DataSource,
+** por isso ele é declarado aqui, com as mesmas propriedades "spring.datasource" usadas pelo JPA
+** Com réplicas configuradas (anime.datasource.replicas) as transações somente leitura são enviadas a elas */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    private final Environment environment;
+
+    public DataSourceConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ReadReplicas readReplicas) {
+        HikariDataSource primary = bind(properties.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+        if (properties.getName() != null) primary.setPoolName(properties.getName());
+        if (readReplicas.isEmpty()) return primary;
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, readReplicas));
+    }
+
+    //Os pools das réplicas usam as mesmas configurações do Hikari e, se omitidos, o mesmo usuário do primário
+    @Bean
+    public ReadReplicas readReplicas(ReadReplicaProperties properties, DataSourceProperties primary) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        List<ReadReplicaProperties.Replica> replicas = properties.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadReplicaProperties.Replica replica = replicas.get(i);
+            HikariDataSource dataSource = bind(DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword())
+                    .build());
+            dataSource.setPoolName("replica-" + (i + 1));
+            dataSources.put(dataSource.getPoolName(), dataSource);
+        }
+        ReadReplicas readReplicas = new ReadReplicas(dataSources, properties.getLagQuery(),
+                properties.getLagColumn(), properties.getMaxLag());
+        readReplicas.start(properties.getHealthCheckInterval());
+        return readReplicas;
+    }
+
+    private HikariDataSource bind(HikariDataSource dataSource) {
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//Limites de requisições por cliente (anime.rate-limit.* no application.yml), ver RateLimiter
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    //Clientes guardados por limite, os menos recentes são descartados (e voltam com o limite cheio)
+    private long maxClients = 100_000;
+    //A primeira regra que corresponder à requisição é aplicada, as demais são ignoradas
+    private List<Limit> limits = new ArrayList<>();
+
+    @Data
+    public static class Limit {
+        //Padrão Ant do caminho, ex: /animes/all/**
+        private String path;
+        //Método HTTP, sem ele todos os métodos são limitados
+        private String method;
+        //Requisições permitidas por período, todas podem ser feitas de uma vez (rajada)
+        private int capacity;
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
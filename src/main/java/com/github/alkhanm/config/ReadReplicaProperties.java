@@ -0,0 +1,32 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//Réplicas de leitura do banco de dados (anime.datasource.* no application.yml), ver DataSourceConfig
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.datasource")
+public class ReadReplicaProperties {
+    //Sem réplicas, todas as transações usam o spring.datasource
+    private List<Replica> replicas = new ArrayList<>();
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    //Consulta que retorna o atraso da réplica em segundos, sem ela apenas a conexão é verificada
+    private String lagQuery;
+    //Coluna do atraso no resultado da lagQuery, sem ela a primeira coluna é usada
+    private String lagColumn;
+    //Réplicas mais atrasadas do que isso deixam de receber leituras até alcançarem o primário
+    private Duration maxLag = Duration.ofSeconds(10);
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -1,22 +1,47 @@
 package com.github.alkhanm.config;
 
+import com.github.alkhanm.security.AuthenticationCache;
+import com.github.alkhanm.security.CachingAuthenticationProvider;
+import com.github.alkhanm.security.RateLimitFilter;
+import com.github.alkhanm.security.RateLimiter;
+import com.github.alkhanm.security.TokenAuthenticationFilter;
+import com.github.alkhanm.security.TokenService;
 import com.github.alkhanm.service.MyUserDetailsService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final MyUserDetailsService myUserDetailsService;
+    private final AuthenticationCache authenticationCache;
+    private final TokenService tokenService;
+    private final RateLimiter rateLimiter;
 
-    public SecurityConfig(MyUserDetailsService myUserDetailsService) {
+    public SecurityConfig(MyUserDetailsService myUserDetailsService, AuthenticationCache authenticationCache,
+                          TokenService tokenService, RateLimiter rateLimiter) {
         this.myUserDetailsService = myUserDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.tokenService = tokenService;
+        this.rateLimiter = rateLimiter;
+    }
+
+    //Disponibiliza o AuthenticationManager para o endpoint de login (/auth/login)
+    @Bean
+    @Override
+    public AuthenticationManager authenticationManagerBean() throws Exception {
+        return super.authenticationManagerBean();
     }
 
     // Configura quais requisições serão protegidas
@@ -33,6 +58,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .permitAll()
                 //.authenticated()
               .and()
+                //Nenhuma sessão é criada, cada requisição se autentica através do token ou do HTTP Basic
+                .sessionManagement()
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+              .and()
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class)
+                //Antes de toda autenticação (token e HTTP Basic): as tentativas de senha também são limitadas, pelo IP
+                .addFilterBefore(new RateLimitFilter(rateLimiter), TokenAuthenticationFilter.class)
                 .httpBasic();
     }
 
@@ -41,10 +73,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         String encoded = passwordEncoder.encode("test");
         System.out.printf("Password encoded: %s\n", encoded );
 
-        auth
-                //Classe responsável por buscar usuários autenticáveis
-                .userDetailsService(myUserDetailsService)
-                .passwordEncoder(passwordEncoder);
+        DaoAuthenticationProvider databaseProvider = new DaoAuthenticationProvider();
+        //Classe responsável por buscar usuários autenticáveis
+        databaseProvider.setUserDetailsService(myUserDetailsService);
+        databaseProvider.setPasswordEncoder(passwordEncoder);
+
+        //Reaproveita as autenticações recentes, evitando o banco de dados e o bcrypt a cada requisição
+        auth.authenticationProvider(new CachingAuthenticationProvider(databaseProvider, authenticationCache));
 
         // O Spring consegue realizar a autenticação com múltiplos provedores ao mesmo tempo
         // Assim, ele aceita tanto autenticação através do banco de dados (acima) quanto em memória (abaixo)
@@ -0,0 +1,75 @@
+package com.github.alkhanm.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/* Mede o tempo de todos os métodos públicos dos services, com as tags class, method, outcome e exception
+** Os histogramas e os buckets de SLO são configurados em application.yml (management.metrics.distribution.*)
+** Nos métodos reativos o tempo é medido da assinatura até o fim do Flux/Mono, e não apenas a sua montagem */
+@Aspect
+@Component
+//Envolve o cache e a transação, assim as respostas vindas do cache também são medidas
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+    public static final String METRIC_NAME = "service.requests";
+
+    private final MeterRegistry registry;
+
+    public ServiceMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.github.alkhanm.service..*(..)) && @within(org.springframework.stereotype.Service)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Tags tags = Tags.of("class", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                "method", joinPoint.getSignature().getName());
+        Timer.Sample sample = Timer.start(registry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stop(sample, tags, "ERROR", e);
+            throw e;
+        }
+        if (result instanceof Mono) return time((Mono<?>) result, tags);
+        if (result instanceof Flux) return time((Flux<?>) result, tags);
+        stop(sample, tags, "SUCCESS", null);
+        return result;
+    }
+
+    private Mono<?> time(Mono<?> mono, Tags tags) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return mono.doOnSuccess(value -> stop(sample, tags, "SUCCESS", null))
+                    .doOnError(e -> stop(sample, tags, "ERROR", e))
+                    .doOnCancel(() -> stop(sample, tags, "CANCELLED", null));
+        });
+    }
+
+    private Flux<?> time(Flux<?> flux, Tags tags) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return flux.doOnComplete(() -> stop(sample, tags, "SUCCESS", null))
+                    .doOnError(e -> stop(sample, tags, "ERROR", e))
+                    .doOnCancel(() -> stop(sample, tags, "CANCELLED", null));
+        });
+    }
+
+    private void stop(Timer.Sample sample, Tags tags, String outcome, Throwable exception) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("Tempo de execução dos métodos dos services")
+                .tags(tags)
+                .tag("outcome", outcome)
+                .tag("exception", exception == null ? "none" : exception.getClass().getSimpleName())
+                .register(registry));
+    }
+}
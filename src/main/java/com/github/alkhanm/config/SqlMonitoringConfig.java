@@ -0,0 +1,34 @@
+package com.github.alkhanm.config;
+
+import com.github.alkhanm.sql.DataSourceProxyPostProcessor;
+import com.github.alkhanm.sql.SqlStatementFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+//Contagem das instruções SQL por requisição, pode ser desligada com anime.sql.enabled=false
+@Configuration
+@ConditionalOnProperty(prefix = "anime.sql", name = "enabled", matchIfMissing = true)
+public class SqlMonitoringConfig {
+
+    //static: um BeanPostProcessor precisa existir antes dos outros beans desta classe
+    @Bean
+    public static DataSourceProxyPostProcessor dataSourceProxyPostProcessor() {
+        return new DataSourceProxyPostProcessor();
+    }
+
+    //Executado antes do Spring Security, assim as consultas da autenticação também são contadas
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<SqlStatementFilter> sqlStatementFilter(SqlMonitoringProperties properties,
+                                                                         MeterRegistry registry) {
+        FilterRegistrationBean<SqlStatementFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementFilter(properties, registry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Contagem das instruções SQL de cada requisição (anime.sql.* no application.yml)
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.sql")
+public class SqlMonitoringProperties {
+    //Envolve o DataSource com o proxy que conta as instruções (SqlMonitoringConfig)
+    private boolean enabled = true;
+    /* Adiciona a quantidade de instruções e o tempo gasto no banco de dados aos cabeçalhos das respostas
+    ** Expõe detalhes internos a qualquer cliente, é ligado apenas no perfil "dev" */
+    private boolean headers = false;
+    //Acima desses valores a requisição é registrada no log
+    private int statementThreshold = 20;
+    private Duration timeThreshold = Duration.ofMillis(500);
+    //Quantas vezes a mesma instrução pode ser executada em uma requisição antes de ser apontada como um possível N+1
+    private int repeatedStatementThreshold = 5;
+}
@@ -0,0 +1,19 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Configurações dos tokens de acesso (anime.security.token.* no application.yml)
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.security.token")
+public class TokenProperties {
+    /* Chave usada para assinar os tokens, em Base64 e com pelo menos 32 bytes
+    ** Todas as instâncias da aplicação precisam usar a mesma chave
+    ** Se não for informada, uma chave aleatória é gerada e os tokens deixam de valer quando a aplicação reinicia */
+    private String secret;
+    private Duration ttl = Duration.ofMinutes(15);
+}
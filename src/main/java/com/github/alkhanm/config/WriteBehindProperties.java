@@ -0,0 +1,25 @@
+package com.github.alkhanm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Gravação assíncrona de POST /animes com "Prefer: respond-async" (anime.write-behind.* no application.yml)
+@Data
+@Component
+@ConfigurationProperties(prefix = "anime.write-behind")
+public class WriteBehindProperties {
+    private boolean enabled = false;
+    //Animes aguardando gravação, com a fila cheia as requisições recebem 503
+    private int capacity = 10_000;
+    //Animes gravados por transação, não pode passar de anime.batch.max-items
+    private int maxBatchSize = 500;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    //Por quanto tempo a situação de cada anime enviado pode ser consultada
+    private Duration statusTtl = Duration.ofMinutes(10);
+    private int maxTrackedIds = 100_000;
+    //Tempo para gravar o que restou na fila quando a aplicação é encerrada
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
@@ -1,16 +1,31 @@
 package com.github.alkhanm.configurer;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
 
 @Configuration
 public class MyWebMvcConfigurer implements WebMvcConfigurer{
+    //Cada getObject() retorna um novo builder, já com as mesmas configurações do ObjectMapper do JSON
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public MyWebMvcConfigurer(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
     @Override //Capta as requisições paginadas
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
         var pageableHandler = new PageableHandlerMethodArgumentResolver();
@@ -18,4 +33,19 @@ public class MyWebMvcConfigurer implements WebMvcConfigurer{
         pageableHandler.setFallbackPageable(PageRequest.of(0, 5));
         resolvers.add(pageableHandler);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new VaryAcceptInterceptor()).addPathPatterns("/animes", "/animes/**");
+    }
+
+    /* Respostas e requisições em CBOR (application/cbor) ou Smile (application/x-jackson-smile), pelo Accept/Content-Type
+    ** Ficam no fim da lista: sem Accept, ou quando qualquer formato é aceito, a resposta continua sendo JSON */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+    }
 }
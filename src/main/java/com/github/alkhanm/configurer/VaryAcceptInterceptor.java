@@ -0,0 +1,17 @@
+package com.github.alkhanm.configurer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/* As respostas dos animes são JSON, CBOR ou Smile conforme o Accept: com Vary, um cache não entrega um formato no lugar do outro
+** Adicionado antes do método do controller, assim também está nas respostas 304 */
+public class VaryAcceptInterceptor implements HandlerInterceptor {
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.alkhanm.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.alkhanm.domain.Anime;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/* Corpo de GET /animes/all já serializado em JSON, sem e com gzip, guardado junto da versão dos animes que o gerou (AnimeService.getAllVersion)
+** Qualquer alteração dos animes (save, replace, delete, lotes) muda a versão, e apenas a próxima requisição monta o corpo novamente
+** Enquanto a versão não muda, as requisições só copiam os bytes para a resposta, sem consultar os animes nem usar o Jackson */
+@Component
+public class AnimeAllResponseCache {
+    private final ObjectWriter writer;
+    private volatile Rendered rendered;
+
+    public AnimeAllResponseCache(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(new TypeReference<List<Anime>>() {
+        });
+    }
+
+    //Várias requisições com a mesma versão nova montam o corpo uma única vez, as demais esperam por ele
+    Rendered get(String version, Supplier<List<Anime>> animes) {
+        Rendered current = rendered;
+        if (current != null && current.version.equals(version)) return current;
+        synchronized (this) {
+            current = rendered;
+            if (current != null && current.version.equals(version)) return current;
+            current = render(version, animes.get());
+            rendered = current;
+            return current;
+        }
+    }
+
+    private Rendered render(String version, List<Anime> animes) {
+        try {
+            byte[] identity = writer.writeValueAsBytes(animes);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(Math.max(identity.length / 4, 64));
+            try (GZIPOutputStream outputStream = new GZIPOutputStream(gzip)) {
+                outputStream.write(identity);
+            }
+            return new Rendered(version, identity, gzip.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Getter
+    static final class Rendered {
+        private final String version;
+        private final byte[] identity;
+        private final byte[] gzip;
+
+        private Rendered(String version, byte[] identity, byte[] gzip) {
+            this.version = version;
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -1,10 +1,25 @@
 package com.github.alkhanm.controller;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.request.AnimePatchRequestBody;
 import com.github.alkhanm.request.AnimePostRequestBody;
 import com.github.alkhanm.request.AnimePutRequestBody;
+import com.github.alkhanm.response.AnimeIngestResponse;
+import com.github.alkhanm.response.AnimeMultiGetResponse;
+import com.github.alkhanm.response.BatchResponse;
+import com.github.alkhanm.service.AnimeSearchMode;
 import com.github.alkhanm.service.AnimeService;
+import com.github.alkhanm.service.AnimeWriteBehind;
+import com.github.alkhanm.wrapper.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,26 +28,50 @@ import org.springdoc.api.annotations.ParameterObject;
 import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/animes")
 @Log4j2
 public class AnimeController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final AnimeService service;
+    private final ObjectWriter ndjsonWriter;
+    private final AnimeAllResponseCache allResponseCache;
+    private final AnimeWriteBehind writeBehind;
 
-    public AnimeController(AnimeService service) {
+    public AnimeController(AnimeService service, ObjectMapper objectMapper, AnimeAllResponseCache allResponseCache,
+                           AnimeWriteBehind writeBehind) {
         //Realiza a injeção de dependência automatica de um "bean"
         this.service = service;
+        this.allResponseCache = allResponseCache;
+        this.writeBehind = writeBehind;
+        //Escreve um anime por linha, sem fechar a resposta e sem forçar um flush a cada anime
+        this.ndjsonWriter = objectMapper.writerFor(Anime.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     //SWAGGER: Parameter(hidden = true), esconde da documentação do Swagger algum parâmetro
@@ -41,27 +80,111 @@ public class AnimeController {
     @Operation(summary = "Retorna uma lista paginada de animes",
             description = "O tamanho padrão da lista é de 20 elementos, use o parâmetro 'size' para mudar isso",
             tags = {"Listar"})
-    public ResponseEntity<Page<Anime>> list(@ParameterObject Pageable pageable){
-      return ResponseEntity.ok(service.listAll(pageable));
+    public ResponseEntity<Page<Anime>> list(@ParameterObject Pageable pageable, WebRequest request){
+        //Se o cliente já possui a página (If-None-Match), responde 304 sem serializá-la nem enviá-la
+        Page<Anime> page = service.listAll(pageable);
+        String representation = AnimeETags.representation(request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(AnimeETags.ofPage(page, representation))) return null;
+        return ResponseEntity.ok(page);
     }
 
-    @GetMapping(path = "/all")
+    @GetMapping(path = "/slice") // localhost:8080/animes/slice?page=0&size=3&sort=name
+    @Operation(summary = "Retorna uma fatia de animes, sem o total de elementos",
+            description = "Igual à listagem paginada, mas não executa o COUNT(*) para calcular 'totalElements'",
+            tags = {"Listar"})
+    public ResponseEntity<Slice<Anime>> listSlice(@ParameterObject Pageable pageable){
+        return ResponseEntity.ok(service.listSlice(pageable));
+    }
+
+    @GetMapping(path = "/cursor") // localhost:8080/animes/cursor?size=20&sort=name&cursor=...
+    @Operation(summary = "Retorna uma página de animes a partir de um cursor",
+            description = "Envie o 'nextCursor' da resposta para obter a próxima página. Ordenação: 'id' ou 'name'",
+            tags = {"Listar"})
+    public ResponseEntity<CursorPage<Anime>> listByCursor(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size,
+                                                          @RequestParam(defaultValue = "id") String sort){
+        return ResponseEntity.ok(service.listByCursor(cursor, size, sort));
+    }
+
+    //Formatos binários (CBOR, Smile), o JSON é atendido por listJson
+    @GetMapping(path = "/all", produces = {MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile"})
     @Operation(summary = "Retorna uma lista com todos os animes", tags = {"Listar"})
-    public ResponseEntity<List<Anime>> list(){
+    public ResponseEntity<List<Anime>> list(WebRequest request){
+        String representation = AnimeETags.representation(request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(AnimeETags.ofAll(service.getAllVersion(), representation))) return null;
         return ResponseEntity.ok(service.listAll());
     }
 
+    /* Sem "produces", o Spring escolhe este método sempre que o cliente não pede CBOR ou Smile antes de qualquer outro tipo
+    ** O corpo já serializado (e comprimido, se o cliente aceitar gzip) é escrito diretamente na resposta */
+    @GetMapping(path = "/all")
+    @Operation(summary = "Retorna uma lista com todos os animes", tags = {"Listar"})
+    @ApiResponse(responseCode = "200", description = "Operação bem-sucedida", content = @Content(
+            mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = Anime.class))))
+    public ResponseEntity<byte[]> listJson(NativeWebRequest request,
+                                           @Parameter(hidden = true)
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        String version = service.getAllVersion();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        //Também na resposta 304, o Vary: Accept é enviado pelo VaryAcceptInterceptor
+        request.getNativeResponse(HttpServletResponse.class).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (request.checkNotModified(AnimeETags.ofAll(version, gzip ? AnimeETags.GZIP : AnimeETags.JSON))) return null;
+        AnimeAllResponseCache.Rendered rendered = allResponseCache.get(version, service::listAll);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (gzip) headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                })
+                .body(gzip ? rendered.getGzip() : rendered.getIdentity());
+    }
+
+    @GetMapping(path = "/all/stream", produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exporta todos os animes, um por linha (NDJSON)",
+            description = "Os animes são escritos à medida que são lidos do banco de dados, o uso de memória não cresce com a tabela",
+            tags = {"Listar"})
+    public ResponseEntity<StreamingResponseBody> stream(){
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = ndjsonWriter.writeValues(outputStream)) {
+                service.exportAll(anime -> {
+                    try {
+                        writer.write(anime);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
     @GetMapping(path = "/{id}")
     @Operation(summary = "Busca um anime através do id", tags = {"Buscar"})
-    public ResponseEntity<Anime> findById(@PathVariable long id){
-        return ResponseEntity.ok(service.findByIdOrThrowException(id));
+    public ResponseEntity<Anime> findById(@PathVariable long id,
+                                          @Parameter(hidden = true)
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        //O Spring compara o ETag com o If-None-Match e responde 304 sem serializar o anime
+        Anime anime = service.findByIdOrThrowException(id);
+        return ResponseEntity.ok().eTag(AnimeETags.of(anime, AnimeETags.representation(accept))).body(anime);
     }
     @GetMapping(path = "by-id/{id}")
     @Operation(summary = "Busca um anime através do id", tags = {"Buscar"})
     public ResponseEntity<Anime> findByIdAuthenticated(@PathVariable long id,
-                                                       @AuthenticationPrincipal UserDetails userDetails){
+                                                       @AuthenticationPrincipal UserDetails userDetails,
+                                                       @Parameter(hidden = true)
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
         System.out.println("Usuário autenticado: " + userDetails);
-        return ResponseEntity.ok(service.findByIdOrThrowException(id));
+        Anime anime = service.findByIdOrThrowException(id);
+        return ResponseEntity.ok().eTag(AnimeETags.of(anime, AnimeETags.representation(accept))).body(anime);
+    }
+
+    @GetMapping(params = "ids") // localhost:8080/animes?ids=1,5,9
+    @Operation(summary = "Busca vários animes através dos ids",
+            description = "Os animes são retornados na ordem dos ids, os ids inexistentes são listados em 'missing'. No máximo 100 ids",
+            tags = {"Buscar"})
+    public ResponseEntity<AnimeMultiGetResponse> findByIds(@RequestParam List<Long> ids){
+        return ResponseEntity.ok(service.findByIds(ids));
     }
 
     @GetMapping(path = "/find")
@@ -70,12 +193,71 @@ public class AnimeController {
         return ResponseEntity.ok(service.findByName(name));
     }
 
+    @GetMapping(path = "/search") // localhost:8080/animes/search?q=naru&mode=PREFIX&page=0&size=20
+    @Operation(summary = "Busca animes pelo início (PREFIX) ou por parte (CONTAINS) do nome",
+            description = "Não diferencia maiúsculas de minúsculas. No máximo 50 animes por página",
+            tags = {"Buscar"})
+    public ResponseEntity<Slice<Anime>> search(@RequestParam String q,
+                                               @RequestParam(defaultValue = "PREFIX") AnimeSearchMode mode,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(service.search(q, mode, page, size));
+    }
+
     @PostMapping
     //@PreAuthorize("hasRole('ADMIN')") //Antes de executar, verifica se o usuário possui a autorização necessária
     public ResponseEntity<Anime> save(@RequestBody @Valid AnimePostRequestBody anime){
         return new ResponseEntity<>(service.save(anime), HttpStatus.CREATED);
     }
 
+    /* "Prefer: respond-async" com anime.write-behind.enabled: o anime é validado e enfileirado, a resposta (202) traz o id de acompanhamento
+    ** Recebe toda requisição com o cabeçalho Prefer, que pode ter outras preferências ("respond-async, wait=10")
+    ** Sem respond-async, ou com a gravação assíncrona desativada, o anime é salvo como em save */
+    @PostMapping(headers = Preferences.PREFER)
+    @Operation(summary = "Enfileira o anime para ser salvo em segundo plano",
+            description = "Envie o cabeçalho 'Prefer: respond-async'. A situação é consultada em /animes/ingest/{trackingId}",
+            tags = {"Lote"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Anime enfileirado"),
+            @ApiResponse(responseCode = "503", description = "Quando a fila de gravação está cheia, tente novamente após o Retry-After")
+    })
+    public ResponseEntity<?> saveAsync(@RequestBody @Valid AnimePostRequestBody anime,
+                                       @Parameter(hidden = true) @RequestHeader HttpHeaders headers){
+        if (!writeBehind.isEnabled() || !Preferences.contains(headers.get(Preferences.PREFER), Preferences.RESPOND_ASYNC))
+            return save(anime);
+        AnimeIngestResponse response = writeBehind.submit(anime);
+        return ResponseEntity.accepted()
+                .location(URI.create("/animes/ingest/" + response.getTrackingId()))
+                .header(Preferences.PREFERENCE_APPLIED, Preferences.RESPOND_ASYNC)
+                .body(response);
+    }
+
+    @GetMapping(path = "/ingest/{trackingId}")
+    @Operation(summary = "Consulta a situação de um anime enviado com 'Prefer: respond-async'", tags = {"Lote"})
+    public ResponseEntity<AnimeIngestResponse> ingestStatus(@PathVariable UUID trackingId){
+        return ResponseEntity.ok(writeBehind.status(trackingId));
+    }
+
+    //Sem o corpo, o lote é rejeitado pelo AnimeService com a mesma resposta das demais validações (BadRequestException)
+    @PostMapping(path = "/batch")
+    @Operation(summary = "Salva vários animes em uma única transação",
+            description = "Cada item é validado individualmente, o resultado de cada um é retornado na mesma ordem da requisição",
+            tags = {"Lote"})
+    public ResponseEntity<BatchResponse> saveAll(@RequestBody(required = false) List<AnimePostRequestBody> animes){
+        return ResponseEntity.ok(service.saveAll(animes));
+    }
+
+    @PutMapping(path = "/batch")
+    @Operation(summary = "Substitui vários animes em uma única transação", tags = {"Lote"})
+    public ResponseEntity<BatchResponse> replaceAll(@RequestBody(required = false) List<AnimePutRequestBody> animes){
+        return ResponseEntity.ok(service.replaceAll(animes));
+    }
+
+    @DeleteMapping(path = "/batch")
+    @Operation(summary = "Remove vários animes através dos ids", tags = {"Lote"})
+    public ResponseEntity<BatchResponse> deleteAll(@RequestBody(required = false) List<Long> ids){
+        return ResponseEntity.ok(service.deleteAll(ids));
+    }
 
     @DeleteMapping(path = "admin/{id}")
     @ApiResponses(value =  {
@@ -89,9 +271,37 @@ public class AnimeController {
 
 
     @PutMapping
-    public ResponseEntity<Void> replace(@RequestBody AnimePutRequestBody anime){
-        service.replace(anime);
+    @ApiResponses(value =  {
+            @ApiResponse(responseCode = "204", description = "Operação bem-sucedida"),
+            @ApiResponse(responseCode = "412", description = "Quando o If-Match não corresponde à versão atual do anime")
+    })
+    public ResponseEntity<Void> replace(@RequestBody @Valid AnimePutRequestBody anime,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        service.replace(anime, AnimeETags.expectedVersion(ifMatch, anime.getId()));
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @PatchMapping(path = "/{id}")
+    @Operation(summary = "Altera apenas os campos enviados do anime", tags = {"Alterar"})
+    @ApiResponses(value =  {
+            @ApiResponse(responseCode = "204", description = "Operação bem-sucedida"),
+            @ApiResponse(responseCode = "400", description = "Quando o anime não existe no banco de dados"),
+            @ApiResponse(responseCode = "412", description = "Quando o If-Match não corresponde à versão atual do anime")
+    })
+    public ResponseEntity<Void> patch(@PathVariable long id, @RequestBody @Valid AnimePatchRequestBody anime,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        service.patch(id, anime, AnimeETags.expectedVersion(ifMatch, id));
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    //"gzip" na lista do Accept-Encoding, exceto com q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
 }
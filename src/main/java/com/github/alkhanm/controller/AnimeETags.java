@@ -0,0 +1,115 @@
+package com.github.alkhanm.controller;
+
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.exception.PreconditionFailedException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Monta e interpreta os ETags dos animes: "<id>-<versão>" para um anime, "all-<versão da coleção>" e "page-<conteúdo>" para as listas
+** Cada formato da resposta (CBOR, Smile, JSON com gzip) tem outros bytes e portanto o seu próprio ETag forte, com o formato
+** como sufixo ("1-0-cbor"). O JSON, o formato padrão, não tem sufixo */
+final class AnimeETags {
+    static final String JSON = "";
+    static final String GZIP = "gz";
+    private static final String ANY = "*";
+    //Na ordem dos conversores (ver MyWebMvcConfigurer): com tipos igualmente aceitos, o Spring escolhe o primeiro
+    private static final Map<MediaType, String> REPRESENTATIONS = new LinkedHashMap<>();
+
+    static {
+        REPRESENTATIONS.put(MediaType.APPLICATION_JSON, JSON);
+        REPRESENTATIONS.put(MediaType.APPLICATION_CBOR, "cbor");
+        REPRESENTATIONS.put(MediaType.parseMediaType("application/x-jackson-smile"), "smile");
+    }
+
+    private AnimeETags() {
+    }
+
+    //Formato que o Spring escolhe para o Accept entre JSON, CBOR e Smile
+    static String representation(String accept) {
+        if (accept == null) return JSON;
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType type : acceptable) {
+            if (type.getQualityValue() == 0) continue;
+            for (Map.Entry<MediaType, String> representation : REPRESENTATIONS.entrySet())
+                if (type.includes(representation.getKey())) return representation.getValue();
+        }
+        return JSON;
+    }
+
+    static String of(Anime anime, String representation) {
+        return quote(anime.getId() + "-" + anime.getVersion(), representation);
+    }
+
+    //Versão de AnimeService.getAllVersion
+    static String ofAll(String version, String representation) {
+        return quote("all-" + version, representation);
+    }
+
+    /* A página é identificada pelo seu conteúdo: o total, a posição, a ordenação e o id e a versão de cada anime
+    ** Assim o ETag corresponde sempre ao corpo lido, mesmo que ele venha de uma réplica atrasada */
+    static String ofPage(Page<Anime> page, String representation) {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * (3 + 2 * page.getNumberOfElements()));
+        buffer.putLong(page.getTotalElements()).putLong(page.getNumber()).putLong(page.getSize());
+        for (Anime anime : page) buffer.putLong(anime.getId()).putLong(anime.getVersion() == null ? 0 : anime.getVersion());
+        MessageDigest digest = sha256();
+        digest.update(buffer.array());
+        digest.update(page.getSort().toString().getBytes(StandardCharsets.UTF_8));
+        return quote("page-" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16)),
+                representation);
+    }
+
+    /* Retorna a versão esperada pelo cabeçalho If-Match, ou null quando qualquer versão é aceita
+    ** O ETag de qualquer formato é aceito, apenas a versão é comparada. ETags fracos (W/) não podem ser usados no If-Match */
+    static Long expectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ANY.equals(ifMatch.trim())) return null;
+        String value = ifMatch.trim();
+        String prefix = "\"" + id + "-";
+        if (!value.startsWith(prefix) || !value.endsWith("\"") || value.length() <= prefix.length() + 1)
+            throw new PreconditionFailedException("The If-Match header does not match the anime");
+        String version = value.substring(prefix.length(), value.length() - 1);
+        int suffix = version.indexOf('-');
+        if (suffix >= 0) {
+            if (!REPRESENTATIONS.containsValue(version.substring(suffix + 1)))
+                throw new PreconditionFailedException("The If-Match header does not match the anime");
+            version = version.substring(0, suffix);
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("The If-Match header does not match the anime");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String quote(String value, String representation) {
+        return representation.isEmpty() ? quote(value) : quote(value + "-" + representation);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
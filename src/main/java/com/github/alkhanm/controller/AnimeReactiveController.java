@@ -0,0 +1,52 @@
+package com.github.alkhanm.controller;
+
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.service.AnimeReactiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/* Leituras não bloqueantes: o Spring MVC libera a thread do Tomcat enquanto a consulta é executada
+** Em /all (NDJSON) os animes são escritos à medida que chegam do banco de dados, respeitando a velocidade do cliente (backpressure)
+** Nas demais a lista em JSON é montada antes de ser enviada */
+@RestController
+@RequestMapping("/reactive/animes")
+public class AnimeReactiveController {
+    private final AnimeReactiveService service;
+
+    public AnimeReactiveController(AnimeReactiveService service) {
+        this.service = service;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Retorna uma página de animes sem bloquear uma thread durante a consulta",
+            description = "No máximo 100 animes por página", tags = {"Reativo"})
+    public Flux<Anime> list(@RequestParam(defaultValue = "0") int page,
+                            @RequestParam(defaultValue = "20") int size){
+        return service.listPage(page, size);
+    }
+
+    @GetMapping(path = "/all", produces = AnimeController.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Retorna todos os animes, um por linha (NDJSON)", tags = {"Reativo"})
+    public Flux<Anime> list(){
+        return service.listAll();
+    }
+
+    @GetMapping(path = "/{id}")
+    @Operation(summary = "Busca um anime através do id", tags = {"Reativo"})
+    public Mono<Anime> findById(@PathVariable long id){
+        return service.findByIdOrThrowException(id);
+    }
+
+    @GetMapping(path = "/find", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Busca animes através do nome", tags = {"Reativo"})
+    public Flux<Anime> findByName(@RequestParam String name){
+        return service.findByName(name);
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.alkhanm.controller;
+
+import com.github.alkhanm.request.LoginRequestBody;
+import com.github.alkhanm.response.TokenResponse;
+import com.github.alkhanm.security.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+
+    public AuthController(AuthenticationManager authenticationManager, TokenService tokenService) {
+        this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
+    }
+
+    @PostMapping(path = "/login")
+    @Operation(summary = "Troca usuário e senha por um token de acesso",
+            description = "Envie o token nas próximas requisições através do cabeçalho 'Authorization: Bearer <token>'",
+            tags = {"Autenticação"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operação bem-sucedida"),
+            @ApiResponse(responseCode = "401", description = "Quando o usuário ou a senha estão incorretos")
+    })
+    public ResponseEntity<TokenResponse> login(@RequestBody @Valid LoginRequestBody login){
+        //Verifica a senha apenas uma vez, as próximas requisições validam somente a assinatura do token
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()));
+        return ResponseEntity.ok(new TokenResponse(tokenService.issue(authentication), "Bearer", tokenService.getTtlSeconds()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.alkhanm.controller;
+
+import java.util.List;
+
+/* Interpreta o cabeçalho Prefer (RFC 7240): uma lista de preferências separadas por vírgula, em um ou mais cabeçalhos
+** Cada preferência é um nome, com um valor opcional ("wait=10") e parâmetros depois de ";"
+** Os nomes não diferenciam maiúsculas de minúsculas, e vírgulas ou ";" dentro de aspas fazem parte do valor */
+final class Preferences {
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+
+    private Preferences() {
+    }
+
+    //Ex: contains(["return=minimal, respond-async"], "respond-async") é true
+    static boolean contains(List<String> headers, String preference) {
+        if (headers == null) return false;
+        for (String header : headers) {
+            if (header != null && contains(header, preference)) return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(String header, String preference) {
+        int start = 0;
+        boolean quoted = false;
+        for (int i = 0; i <= header.length(); i++) {
+            char c = i < header.length() ? header.charAt(i) : ',';
+            if (quoted) {
+                if (c == '\\') i++;
+                else if (c == '"') quoted = false;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                if (name(header.substring(start, i)).equalsIgnoreCase(preference)) return true;
+                start = i + 1;
+            }
+        }
+        return false;
+    }
+
+    //O nome vem antes do valor ("=") e dos parâmetros (";")
+    private static String name(String preference) {
+        int end = preference.length();
+        for (int i = 0; i < preference.length(); i++) {
+            char c = preference.charAt(i);
+            if (c == '=' || c == ';') {
+                end = i;
+                break;
+            }
+        }
+        return preference.substring(0, end).trim();
+    }
+}
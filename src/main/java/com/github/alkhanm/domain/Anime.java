@@ -1,25 +1,71 @@
 package com.github.alkhanm.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotEmpty;
+import java.util.Locale;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        //Também atende a paginação por cursor ordenada por (name, id)
+        @Index(name = "idx_anime_name_id", columnList = "name, id"),
+        @Index(name = "idx_anime_search_name", columnList = "search_name")
+})
 public class Anime {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //Quantidade de ids reservados a cada leitura da sequência
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /* IDENTITY impede o Hibernate de agrupar os INSERTs em lotes, pois o id só é conhecido após cada INSERT
+    ** Com uma sequência, os ids são reservados de 50 em 50 antes dos INSERTs
+    ** Em um banco que já tinha animes, a sequência é avançada na inicialização (AnimeSchemaInitializer) */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "anime_sequence")
+    @SequenceGenerator(name = "anime_sequence", sequenceName = "anime_sequence", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotEmpty(message = "The anime name cannot be empty")
     private String name;
+
+    //Incrementada a cada alteração, é usada no controle de concorrência e nos ETags
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    //Nome em letras minúsculas, usado nas buscas sem diferenciar maiúsculas de minúsculas
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Column(name = "search_name")
+    private String searchName;
+
+    public static String normalize(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        this.searchName = normalize(name);
+    }
 }
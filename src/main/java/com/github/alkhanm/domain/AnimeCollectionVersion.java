@@ -0,0 +1,35 @@
+package com.github.alkhanm.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/* Marcador de alterações da tabela de animes: uma única linha, à qual cada instância soma periodicamente
+** as alterações que fez (AnimeCollectionVersionTracker). Sincroniza entre as instâncias a versão usada no ETag de /animes/all */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "anime_collection_version")
+public class AnimeCollectionVersion {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long version;
+
+    public AnimeCollectionVersion(long version) {
+        this.id = ID;
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(version);
+    }
+}
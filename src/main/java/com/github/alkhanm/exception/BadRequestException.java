@@ -3,9 +3,11 @@ package com.github.alkhanm.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/* Erro esperado de negócio (anime inexistente, parâmetro inválido), sempre respondido pelo RestExceptionHandler
+** O stack trace não é preenchido: ele não seria usado e é a parte mais cara de lançar a exceção */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BadRequestException extends RuntimeException {
     public BadRequestException(String msg){
-        super(msg);
+        super(msg, null, false, false);
     }
 }
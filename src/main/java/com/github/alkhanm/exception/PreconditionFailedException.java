@@ -0,0 +1,12 @@
+package com.github.alkhanm.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+//Assim como a BadRequestException, é um erro esperado e não preenche o stack trace
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String msg){
+        super(msg, null, false, false);
+    }
+}
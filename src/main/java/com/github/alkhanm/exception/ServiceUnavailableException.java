@@ -0,0 +1,19 @@
+package com.github.alkhanm.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+//Sobrecarga momentânea (fila de gravação cheia), o cliente deve tentar novamente depois de retryAfter
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String msg, Duration retryAfter){
+        super(msg, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
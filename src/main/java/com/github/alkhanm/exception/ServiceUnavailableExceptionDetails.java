@@ -0,0 +1,10 @@
+package com.github.alkhanm.exception;
+
+import lombok.Getter;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@SuperBuilder
+public class ServiceUnavailableExceptionDetails extends ExceptionDetails {
+
+}
@@ -2,8 +2,14 @@ package com.github.alkhanm.handler;
 
 import com.github.alkhanm.exception.BadRequestException;
 import com.github.alkhanm.exception.BadRequestExceptionDetails;
+import com.github.alkhanm.exception.ExceptionDetails;
+import com.github.alkhanm.exception.PreconditionFailedException;
+import com.github.alkhanm.exception.PreconditionFailedExceptionDetails;
+import com.github.alkhanm.exception.ServiceUnavailableException;
+import com.github.alkhanm.exception.ServiceUnavailableExceptionDetails;
 import com.github.alkhanm.exception.ValidationExceptionDetails;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,25 +22,69 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
+    //Limita os corpos guardados, caso alguma mensagem contenha dados da requisição
+    private static final int MAX_CACHED_DETAILS = 1_000;
+
+    /* Corpos de erro já montados, por exceção e mensagem. O timestamp tem precisão de segundos,
+    ** então durante uma enxurrada de ids inexistentes o mesmo corpo é reaproveitado por até um segundo */
+    private final ConcurrentMap<String, ExceptionDetails> cachedDetails = new ConcurrentHashMap<>();
+
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<BadRequestExceptionDetails> handlerBadRequestException(BadRequestException exception){
         return new ResponseEntity<>(
-                BadRequestExceptionDetails.builder()
-                        .timestamp(LocalDateTime.now())
+                this.<BadRequestExceptionDetails>cached(exception, timestamp -> BadRequestExceptionDetails.builder()
+                        .timestamp(timestamp)
                         .status(HttpStatus.BAD_REQUEST.value())
                         .title("Bad Request Exception, Check the documentation")
                         .details(exception.getMessage())
                         .developerMsg(exception.getClass().getName())
-                        .build(),
+                        .build()),
                 HttpStatus.BAD_REQUEST
         );
     }
 
+    //Versão diferente da informada no If-Match, ou alterada por outra requisição durante a atualização
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<PreconditionFailedExceptionDetails> handlerPreconditionFailedException(RuntimeException exception){
+        return new ResponseEntity<>(
+                this.<PreconditionFailedExceptionDetails>cached(exception, timestamp -> PreconditionFailedExceptionDetails.builder()
+                        .timestamp(timestamp)
+                        .status(HttpStatus.PRECONDITION_FAILED.value())
+                        .title("Precondition Failed, the anime has been modified")
+                        .details(exception.getMessage())
+                        .developerMsg(exception.getClass().getName())
+                        .build()),
+                HttpStatus.PRECONDITION_FAILED
+        );
+    }
+
+    //Fila de gravação cheia (AnimeWriteBehind), o Retry-After informa quando tentar novamente
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ServiceUnavailableExceptionDetails> handlerServiceUnavailableException(ServiceUnavailableException exception){
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(exception.getRetryAfter().toSeconds(), 1)));
+        return new ResponseEntity<>(
+                this.<ServiceUnavailableExceptionDetails>cached(exception, timestamp -> ServiceUnavailableExceptionDetails.builder()
+                        .timestamp(timestamp)
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .title("Service Unavailable, try again later")
+                        .details(exception.getMessage())
+                        .developerMsg(exception.getClass().getName())
+                        .build()),
+                headers,
+                HttpStatus.SERVICE_UNAVAILABLE
+        );
+    }
+
     //Sobrescrever o handler padrão do Spring
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid (
@@ -65,14 +115,27 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
     @Override
     protected ResponseEntity<Object> handleExceptionInternal(
             Exception ex, @Nullable Object body, HttpHeaders headers, HttpStatus status, WebRequest request) {
+        //Nem toda exceção do Spring possui uma causa (ex: HttpRequestMethodNotSupportedException)
         BadRequestExceptionDetails exceptionDetails = BadRequestExceptionDetails.builder()
                 .timestamp(LocalDateTime.now())
                 .status(status.value())
-                .title(ex.getCause().getMessage())
+                .title(ex.getCause() != null ? ex.getCause().getMessage() : status.getReasonPhrase())
                 .details(ex.getMessage())
                 .developerMsg(ex.getClass().getName())
                 .build();
         return new ResponseEntity<>(exceptionDetails, headers, status);
     }
 
+    @SuppressWarnings("unchecked")
+    private <T extends ExceptionDetails> T cached(Exception exception, Function<LocalDateTime, T> factory) {
+        LocalDateTime timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String key = exception.getClass().getName() + ':' + exception.getMessage();
+        ExceptionDetails details = cachedDetails.get(key);
+        if (details != null && timestamp.equals(details.getTimestamp())) return (T) details;
+
+        T created = factory.apply(timestamp);
+        if (details != null || cachedDetails.size() < MAX_CACHED_DETAILS) cachedDetails.put(key, created);
+        return created;
+    }
+
 }
@@ -4,6 +4,7 @@ import com.github.alkhanm.domain.Anime;
 import com.github.alkhanm.request.AnimePostRequestBody;
 import com.github.alkhanm.request.AnimePutRequestBody;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 //Serve para converter(mapear) classes de um tipo para outro
@@ -13,7 +14,13 @@ public abstract class AnimeMapper {
     public static final AnimeMapper INSTANCE = Mappers.getMapper(AnimeMapper.class);
 
     //Converte automaticamente de um tipo para outro (desde que os atributos sejam os mesmos)
+    //O id é gerado pela sequência, a versão é controlada pelo Hibernate e o searchName é calculado a partir do nome (Anime)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "searchName", ignore = true)
     public abstract Anime toAnime(AnimePostRequestBody animePostRequestBody);
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "searchName", ignore = true)
     public abstract Anime toAnime(AnimePutRequestBody animePutRequestBody);
 
 }
@@ -0,0 +1,23 @@
+package com.github.alkhanm.repository;
+
+import com.github.alkhanm.domain.AnimeCollectionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AnimeCollectionVersionRepository extends JpaRepository<AnimeCollectionVersion, Integer> {
+    /* Soma as alterações de uma instância à versão com um único UPDATE, sem carregá-la. Retorna 0 se a linha ainda não existe
+    ** Executado pelo AnimeCollectionVersionTracker em uma transação própria, fora das transações que alteram os animes */
+    @Modifying
+    @Query("update AnimeCollectionVersion v set v.version = v.version + :changes where v.id = " + AnimeCollectionVersion.ID)
+    int add(@Param("changes") long changes);
+
+    //Consulta em vez de findById: uma entidade já carregada no contexto de persistência não seria relida
+    @Query("select v.version from AnimeCollectionVersion v where v.id = " + AnimeCollectionVersion.ID)
+    Optional<Long> findVersion();
+}
@@ -0,0 +1,57 @@
+package com.github.alkhanm.repository;
+
+import com.github.alkhanm.domain.Anime;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/* Consultas não bloqueantes (R2DBC) sobre a mesma tabela mantida pelo JPA
+** As linhas são entregues conforme o assinante as solicita, nenhuma thread fica parada esperando o banco de dados */
+@Repository
+public class AnimeReactiveRepository {
+    private static final String SELECT = "select id, name, version from anime";
+
+    private final DatabaseClient client;
+
+    public AnimeReactiveRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Flux<Anime> findAll() {
+        return client.sql(SELECT + " order by id")
+                .map(AnimeReactiveRepository::toAnime)
+                .all();
+    }
+
+    public Flux<Anime> findPage(long offset, int limit) {
+        return client.sql(SELECT + " order by id limit :limit offset :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(AnimeReactiveRepository::toAnime)
+                .all();
+    }
+
+    public Mono<Anime> findById(long id) {
+        return client.sql(SELECT + " where id = :id")
+                .bind("id", id)
+                .map(AnimeReactiveRepository::toAnime)
+                .one();
+    }
+
+    public Flux<Anime> findByName(String name) {
+        return client.sql(SELECT + " where name = :name")
+                .bind("name", name)
+                .map(AnimeReactiveRepository::toAnime)
+                .all();
+    }
+
+    private static Anime toAnime(Row row) {
+        return Anime.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
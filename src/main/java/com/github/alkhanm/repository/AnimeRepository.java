@@ -1,12 +1,75 @@
 package com.github.alkhanm.repository;
 
 import com.github.alkhanm.domain.Anime;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AnimeRepository extends JpaRepository<Anime, Long> {
+    /* As consultas derivadas não herdam a transação somente leitura do SimpleJpaRepository
+    ** Sem ela, a busca seria executada sem transação e o ReadWriteRoutingDataSource a enviaria para o primário */
+    @Transactional(readOnly = true)
     List<Anime> findByName(String name);
-}
\ No newline at end of file
+
+    //As buscas usam a coluna indexada search_name, que guarda o nome em letras minúsculas
+    Slice<Anime> findBySearchNameStartingWith(String prefix, Pageable pageable);
+
+    Slice<Anime> findBySearchNameContaining(String fragment, Pageable pageable);
+
+    //Preenche a coluna search_name dos animes salvos antes da sua criação
+    @Modifying
+    @Query("update Anime a set a.searchName = lower(a.name) where a.searchName is null")
+    int fillMissingSearchNames();
+
+    //Retorna uma fatia (Slice) sem executar o COUNT(*) que o Page exige
+    Slice<Anime> findAllBy(Pageable pageable);
+
+    //Paginação por cursor (keyset): continua a partir do último anime da página anterior, sem OFFSET
+    List<Anime> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    /* Comparação de linhas (name, id) > (?, ?) em SQL nativo: o JPQL a expandiria para name > ? or (name = ? and id > ?),
+    ** que o MySQL nem sempre atende com um único intervalo do índice (name, id) */
+    @Query(value = "select * from anime where (name, id) > (:name, :id) order by name, id", nativeQuery = true)
+    List<Anime> findNextOrderedByName(@Param("name") String name, @Param("id") long id, Pageable pageable);
+
+    /* Alteram o anime com um único UPDATE, sem carregá-lo. Retornam o número de linhas alteradas (0 ou 1)
+    ** A versão é incrementada manualmente, pois o Hibernate só a controla nas entidades carregadas */
+    @Modifying
+    @Query("update Anime a set a.name = :name, a.searchName = :searchName, a.version = a.version + 1 where a.id = :id")
+    int updateName(@Param("id") long id, @Param("name") String name, @Param("searchName") String searchName);
+
+    @Modifying
+    @Query("update Anime a set a.name = :name, a.searchName = :searchName, a.version = a.version + 1 " +
+            "where a.id = :id and a.version = :version")
+    int updateNameIfVersion(@Param("id") long id, @Param("name") String name, @Param("searchName") String searchName,
+                            @Param("version") long version);
+
+    @Query("select a.id from Anime a where a.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    //Remove todos os animes com uma única instrução DELETE
+    @Modifying
+    @Query("delete from Anime a where a.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    //Percorre a tabela com um cursor, buscando os registros do banco de dados em blocos de 1000
+    //Precisa ser consumido dentro de uma transação e fechado ao final
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select a from Anime a")
+    Stream<Anime> streamAll();
+}
@@ -0,0 +1,20 @@
+package com.github.alkhanm.request;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Size;
+
+//Apenas os campos presentes (não nulos) são alterados
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimePatchRequestBody {
+
+    @Size(min = 1)
+    @Schema(description = "Esse é o novo nome do anime", example = "Naruto Shippuden")
+    private String name;
+}
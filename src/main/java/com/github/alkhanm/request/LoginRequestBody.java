@@ -0,0 +1,23 @@
+package com.github.alkhanm.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoginRequestBody {
+    @NotEmpty(message = "The username cannot be empty")
+    @Schema(description = "Nome de usuário", example = "alkham2")
+    private String username;
+
+    @NotEmpty(message = "The password cannot be empty")
+    @Schema(description = "Senha do usuário", example = "test")
+    private String password;
+}
@@ -0,0 +1,20 @@
+package com.github.alkhanm.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+//Situação de um anime enviado com "Prefer: respond-async", o id só é conhecido depois de gravado (CREATED)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeIngestResponse {
+    private UUID trackingId;
+    private AnimeIngestStatus status;
+    private Long id;
+    private String message;
+}
@@ -0,0 +1,7 @@
+package com.github.alkhanm.response;
+
+public enum AnimeIngestStatus {
+    PENDING,
+    CREATED,
+    FAILED
+}
@@ -0,0 +1,17 @@
+package com.github.alkhanm.response;
+
+import com.github.alkhanm.domain.Anime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+//Resposta da busca por vários ids: os animes encontrados, na ordem dos ids, e os ids que não existem
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeMultiGetResponse {
+    private List<Anime> animes;
+    private List<Long> missing;
+}
@@ -0,0 +1,18 @@
+package com.github.alkhanm.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Resultado de um item de uma operação em lote, "index" é a posição do item na requisição
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private Long id;
+    private BatchItemStatus status;
+    private String message;
+}
@@ -0,0 +1,9 @@
+package com.github.alkhanm.response;
+
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    INVALID,
+    NOT_FOUND
+}
@@ -0,0 +1,23 @@
+package com.github.alkhanm.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResponse {
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> items;
+
+    public static BatchResponse of(List<BatchItemResult> items) {
+        int failed = (int) items.stream()
+                .filter(item -> item.getStatus() == BatchItemStatus.INVALID || item.getStatus() == BatchItemStatus.NOT_FOUND)
+                .count();
+        return new BatchResponse(items.size() - failed, failed, items);
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.alkhanm.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenResponse {
+    private String accessToken;
+    private String tokenType;
+    //Tempo de validade do token em segundos
+    private long expiresIn;
+}
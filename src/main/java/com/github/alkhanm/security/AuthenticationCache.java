@@ -0,0 +1,112 @@
+package com.github.alkhanm.security;
+
+import com.github.alkhanm.config.AuthenticationCacheProperties;
+import com.github.alkhanm.domain.MyUser;
+import com.github.alkhanm.service.MyUserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.List;
+
+/* Guarda as autenticações bem-sucedidas, evitando a consulta ao banco de dados e a verificação do bcrypt a cada requisição
+** A senha nunca é guardada: apenas um HMAC de (usuário, senha) com uma chave aleatória que existe só na memória */
+@Component
+public class AuthenticationCache {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    public AuthenticationCache(AuthenticationCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::createMac);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authentication");
+    }
+
+    //Retorna a autenticação guardada se a senha informada for a mesma que foi verificada anteriormente
+    public Entry get(String username, String password) {
+        if (!enabled) return null;
+        Entry entry = cache.getIfPresent(username);
+        if (entry == null) return null;
+        //Comparação em tempo constante, para não revelar quantos bytes coincidem
+        return MessageDigest.isEqual(entry.digest, digest(username, password)) ? entry : null;
+    }
+
+    public void put(String username, String password, UserDetails user) {
+        if (!enabled) return;
+        //As authorities são convertidas uma única vez e reaproveitadas enquanto a autenticação estiver no cache
+        cache.put(username, new Entry(digest(username, password), user, List.copyOf(user.getAuthorities())));
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    //Remove também as entradas com o nome de usuário antigo, caso ele tenha sido alterado
+    public void invalidate(Long userId, String username) {
+        cache.invalidate(username);
+        cache.asMap().values().removeIf(entry -> entry.user instanceof MyUser
+                && ((MyUser) entry.user).getId() != null && ((MyUser) entry.user).getId().equals(userId));
+    }
+
+    /* Publicado pelo MyUserDetailsService sempre que um usuário é alterado ou removido
+    ** Executado depois do commit: antes dele, uma autenticação concorrente poderia guardar o usuário antigo novamente */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(MyUserChangedEvent event) {
+        invalidate(event.getId(), event.getUsername());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private byte[] digest(String username, String password) {
+        Mac hmac = mac.get();
+        hmac.update(username.getBytes(StandardCharsets.UTF_8));
+        hmac.update((byte) 0);
+        return hmac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac hmac = Mac.getInstance(ALGORITHM);
+            hmac.init(key);
+            return hmac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final byte[] digest;
+        private final UserDetails user;
+        private final Collection<? extends GrantedAuthority> authorities;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.alkhanm.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+//Consulta o AuthenticationCache antes de delegar a autenticação (banco de dados + bcrypt) ao provedor original
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache cache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || credentials == null) return delegate.authenticate(authentication);
+
+        String password = credentials.toString();
+        AuthenticationCache.Entry entry = cache.get(username, password);
+        if (entry != null) {
+            UsernamePasswordAuthenticationToken result =
+                    new UsernamePasswordAuthenticationToken(entry.getUser(), null, entry.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        //Apenas autenticações bem-sucedidas são guardadas, falhas lançam exceção antes do put
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.getPrincipal() instanceof UserDetails)
+            cache.put(username, password, (UserDetails) result.getPrincipal());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
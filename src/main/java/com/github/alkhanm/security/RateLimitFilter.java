@@ -0,0 +1,47 @@
+package com.github.alkhanm.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/* Responde 429 (com Retry-After) às requisições acima do limite do cliente
+** Executado antes da autenticação (SecurityConfig), assim as senhas erradas também consomem o limite
+** Sem um usuário já conhecido nesse ponto, o cliente é identificado pelo IP */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = rateLimiter.acquire(request, client(request));
+        if (wait > 0) {
+            //Arredonda para cima, um Retry-After de 0 faria o cliente tentar novamente cedo demais
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, try again in " + seconds + "s");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static String client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken))
+            return "user:" + authentication.getName();
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.alkhanm.security;
+
+import com.github.alkhanm.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/* Token bucket por cliente e por regra de anime.rate-limit.limits
+** Cada balde é um único AtomicLong (algoritmo GCRA): guarda o instante em que o balde estará cheio novamente,
+** e cada requisição o avança com um compareAndSet, sem locks. Os baldes ficam em um cache do Caffeine,
+** que não possui um lock global e descarta os clientes inativos */
+@Component
+public class RateLimiter {
+    public static final String METRIC_NAME = "http.server.requests.throttled";
+
+    private final List<Limit> limits;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry registry) {
+        this(properties, registry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry registry, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.limits = properties.isEnabled()
+                ? properties.getLimits().stream()
+                    .map(limit -> new Limit(limit, properties.getMaxClients(), registry))
+                    .collect(Collectors.toList())
+                : List.of();
+    }
+
+    //Retorna 0 quando a requisição pode seguir, senão quantos nanossegundos faltam para que ela seja aceita
+    public long acquire(HttpServletRequest request, String client) {
+        for (Limit limit : limits) {
+            if (limit.matcher.matches(request)) return limit.acquire(client, nanoClock.getAsLong());
+        }
+        return 0;
+    }
+
+    private static class Limit {
+        private final AntPathRequestMatcher matcher;
+        //Intervalo entre duas requisições no ritmo permitido
+        private final long emissionInterval;
+        //Quanto o cliente pode se adiantar a esse ritmo, ou seja, o tamanho da rajada
+        private final long tolerance;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter throttled;
+
+        Limit(RateLimitProperties.Limit limit, long maxClients, MeterRegistry registry) {
+            if (limit.getCapacity() < 1) throw new IllegalArgumentException("The rate limit capacity must be positive: " + limit.getPath());
+            this.matcher = new AntPathRequestMatcher(limit.getPath(), limit.getMethod());
+            this.tolerance = limit.getPeriod().toNanos();
+            this.emissionInterval = tolerance / limit.getCapacity();
+            //Depois de um período sem requisições o balde estaria cheio, então ele pode ser descartado
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(limit.getPeriod())
+                    .build();
+            this.throttled = Counter.builder(METRIC_NAME)
+                    .description("Requests rejected with 429 by the rate limiter")
+                    .tag("limit", limit.getPath())
+                    .register(registry);
+        }
+
+        long acquire(String client, long now) {
+            AtomicLong bucket = buckets.get(client, key -> new AtomicLong(now));
+            while (true) {
+                long full = bucket.get();
+                long start = full - now > 0 ? full : now;
+                long next = start + emissionInterval;
+                long wait = next - now - tolerance;
+                if (wait > 0) {
+                    throttled.increment();
+                    return wait;
+                }
+                if (bucket.compareAndSet(full, next)) return 0;
+            }
+        }
+    }
+}
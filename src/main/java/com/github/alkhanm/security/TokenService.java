@@ -0,0 +1,124 @@
+package com.github.alkhanm.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.alkhanm.config.TokenProperties;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/* Emite e valida tokens de acesso no formato JWT, assinados com HMAC-SHA256
+** As authorities do usuário ficam dentro do token, assim a validação não precisa consultar o banco de dados */
+@Service
+@Log4j2
+public class TokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+    private final long ttlSeconds;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(TokenProperties properties, ObjectMapper objectMapper) {
+        this(properties, objectMapper, Clock.systemUTC());
+    }
+
+    TokenService(TokenProperties properties, ObjectMapper objectMapper, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.key = new SecretKeySpec(secret(properties), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::createMac);
+        this.ttlSeconds = properties.getTtl().toSeconds();
+        this.clock = clock;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public String issue(Authentication authentication) {
+        long now = clock.instant().getEpochSecond();
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("sub", authentication.getName())
+                .put("iat", now)
+                .put("exp", now + ttlSeconds);
+        authentication.getAuthorities().forEach(authority -> payload.withArray("auth").add(authority.getAuthority()));
+        try {
+            String unsigned = HEADER + "." + encode(objectMapper.writeValueAsBytes(payload));
+            return unsigned + "." + encode(sign(unsigned));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //Retorna a autenticação contida no token, ou null se a assinatura for inválida ou o token estiver expirado
+    public Authentication parse(String token) {
+        int lastDot = token.lastIndexOf('.');
+        if (lastDot < 0 || !token.startsWith(HEADER + ".")) return null;
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(lastDot + 1));
+            //Comparação em tempo constante, para não revelar quantos bytes coincidem
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, lastDot)))) return null;
+
+            JsonNode payload = objectMapper.readTree(Base64.getUrlDecoder().decode(token.substring(HEADER.length() + 1, lastDot)));
+            if (payload.path("exp").asLong() <= clock.instant().getEpochSecond()) return null;
+
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            payload.path("auth").forEach(authority -> authorities.add(new SimpleGrantedAuthority(authority.asText())));
+            User principal = new User(payload.path("sub").asText(), "", authorities);
+            return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String content) {
+        return mac.get().doFinal(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] secret(TokenProperties properties) {
+        if (properties.getSecret() != null && !properties.getSecret().isBlank()) {
+            byte[] secret = Base64.getDecoder().decode(properties.getSecret());
+            if (secret.length < 32) throw new IllegalStateException("anime.security.token.secret must have at least 32 bytes");
+            return secret;
+        }
+        log.warn("anime.security.token.secret is not set, using a random key: tokens will not survive a restart");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private Mac createMac() {
+        try {
+            Mac hmac = Mac.getInstance(ALGORITHM);
+            hmac.init(key);
+            return hmac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.config.AnimeCatalogProperties;
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.repository.AnimeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/* Catálogo de animes em memória (anime.catalog.enabled): as leituras do AnimeService usam a cópia atual, sem acessar o banco de dados
+** É carregado quando a aplicação fica pronta e recarregado a cada anime.catalog.refresh-interval
+** As alterações do AnimeService relêem apenas os animes alterados, depois do commit, e trocam a cópia de uma só vez */
+@Log4j2
+@Component
+public class AnimeCatalog {
+    private final AnimeRepository repository;
+    private final AnimeCatalogProperties properties;
+    //As releituras são feitas no primário (transação de escrita): uma réplica atrasada devolveria o anime antes da alteração
+    private final TransactionTemplate primary;
+    private final Counter refreshes;
+    private final Counter reloads;
+    private volatile AnimeCatalogSnapshot snapshot;
+    private ScheduledExecutorService reloader;
+
+    public AnimeCatalog(AnimeRepository repository, AnimeCatalogProperties properties,
+                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.primary = new TransactionTemplate(transactionManager);
+        this.primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshes = meterRegistry.counter("anime.catalog.refreshes", "type", "incremental");
+        this.reloads = meterRegistry.counter("anime.catalog.refreshes", "type", "full");
+        meterRegistry.gauge("anime.catalog.size", this, catalog -> {
+            AnimeCatalogSnapshot current = catalog.snapshot;
+            return current == null ? Double.NaN : current.size();
+        });
+    }
+
+    //null enquanto o catálogo estiver desativado ou ainda não tiver sido carregado, as leituras usam o banco de dados
+    public AnimeCatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || reloader != null) return;
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "anime-catalog-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getRefreshInterval().toMillis();
+        reloader.scheduleWithFixedDelay(this::reload, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloader != null) reloader.shutdownNow();
+    }
+
+    //Se houver uma transação, os animes são relidos apenas depois do commit, uma transação desfeita não altera o catálogo
+    public void refresh(Collection<Long> ids) {
+        if (!properties.isEnabled() || ids.isEmpty()) return;
+        List<Long> changed = List.copyOf(ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(changed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(changed);
+            }
+        });
+    }
+
+    /* Recarrega a tabela inteira, traz também as alterações das outras instâncias
+    ** As trocas são sincronizadas: uma cópia completa não pode sobrescrever uma alteração aplicada depois da sua leitura */
+    public synchronized void reload() {
+        try {
+            List<Anime> animes = primary.execute(status -> repository.findAll());
+            AnimeCatalogSnapshot loaded = AnimeCatalogSnapshot.of(animes);
+            AnimeCatalogSnapshot current = snapshot;
+            if (current == null || !current.hasSameContent(loaded)) snapshot = loaded;
+            reloads.increment();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload the anime catalog, keeping the previous snapshot", e);
+        }
+    }
+
+    private synchronized void apply(List<Long> ids) {
+        AnimeCatalogSnapshot current = snapshot;
+        if (current == null) return;
+        try {
+            Map<Long, Anime> animes = primary.execute(status -> repository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Anime::getId, Function.identity())));
+            snapshot = current.with(ids, animes);
+            refreshes.increment();
+        } catch (RuntimeException e) {
+            //Sem a alteração, o catálogo ficaria desatualizado até o próximo recarregamento completo
+            log.warn("Could not refresh the anime catalog, reloading it", e);
+            reload();
+        }
+    }
+}
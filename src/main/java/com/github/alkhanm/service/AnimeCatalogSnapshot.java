@@ -0,0 +1,212 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.domain.Anime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/* Cópia imutável da tabela de animes em colunas: um array por campo, ordenados por id, em vez de uma entidade por anime
+** byName guarda as posições ordenadas pelo nome em letras minúsculas, a busca por nome é uma busca binária
+** Uma alteração gera uma nova cópia (with), as leituras em andamento continuam usando a anterior
+** A versão, usada no ETag de /animes/all, é calculada a partir do conteúdo: instâncias com os mesmos animes,
+** inclusive depois de reiniciar, têm a mesma versão */
+public final class AnimeCatalogSnapshot {
+    private final long[] ids;
+    private final String[] names;
+    private final String[] searchNames;
+    private final long[] versions;
+    private final int[] byName;
+    //Soma do hash de cada anime, atualizada com apenas os animes alterados
+    private final long digest;
+
+    private AnimeCatalogSnapshot(long[] ids, String[] names, String[] searchNames, long[] versions, int[] byName,
+                                 long digest) {
+        this.ids = ids;
+        this.names = names;
+        this.searchNames = searchNames;
+        this.versions = versions;
+        this.byName = byName;
+        this.digest = digest;
+    }
+
+    public static AnimeCatalogSnapshot of(Collection<Anime> animes) {
+        Anime[] sorted = animes.stream().sorted(Comparator.comparing(Anime::getId)).toArray(Anime[]::new);
+        long[] ids = new long[sorted.length];
+        String[] names = new String[sorted.length];
+        String[] searchNames = new String[sorted.length];
+        long[] versions = new long[sorted.length];
+        long digest = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i].getId();
+            names[i] = sorted[i].getName();
+            searchNames[i] = Anime.normalize(names[i]);
+            versions[i] = versionOf(sorted[i]);
+            digest += hash(ids[i], names[i], versions[i]);
+        }
+        int[] byName = IntStream.range(0, ids.length).boxed()
+                .sorted((a, b) -> compareByName(searchNames, ids, a, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        return new AnimeCatalogSnapshot(ids, names, searchNames, versions, byName, digest);
+    }
+
+    /* Nova cópia com os animes de "changed" que foram lidos novamente do banco de dados ("current")
+    ** Os ids alterados que não estão em "current" foram removidos
+    ** byName não é reordenado: as posições mantidas são apenas deslocadas, e os animes alterados são inseridos
+    ** nas posições encontradas por busca binária */
+    public AnimeCatalogSnapshot with(Collection<Long> changed, Map<Long, Anime> current) {
+        long[] changedIds = changed.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        int capacity = ids.length + changedIds.length;
+        long[] newIds = new long[capacity];
+        String[] newNames = new String[capacity];
+        String[] newSearchNames = new String[capacity];
+        long[] newVersions = new long[capacity];
+        //Nova posição de cada anime mantido, -1 para os alterados e removidos
+        int[] moved = new int[ids.length];
+        int[] inserted = new int[changedIds.length];
+        int insertedCount = 0;
+        long newDigest = digest;
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ids.length || j < changedIds.length) {
+            if (j == changedIds.length || (i < ids.length && ids[i] < changedIds[j])) {
+                newIds[size] = ids[i];
+                newNames[size] = names[i];
+                newSearchNames[size] = searchNames[i];
+                newVersions[size] = versions[i];
+                moved[i++] = size++;
+                continue;
+            }
+            long id = changedIds[j++];
+            if (i < ids.length && ids[i] == id) {
+                newDigest -= hash(ids[i], names[i], versions[i]);
+                moved[i++] = -1;
+            }
+            Anime anime = current.get(id);
+            if (anime == null) continue;
+            newIds[size] = id;
+            newNames[size] = anime.getName();
+            newSearchNames[size] = Anime.normalize(anime.getName());
+            newVersions[size] = versionOf(anime);
+            newDigest += hash(id, newNames[size], newVersions[size]);
+            inserted[insertedCount++] = size++;
+        }
+
+        int[] kept = new int[byName.length];
+        int keptCount = 0;
+        for (int position : byName) {
+            if (moved[position] >= 0) kept[keptCount++] = moved[position];
+        }
+        //Ordenados entre si, assim cada busca começa de onde a anterior parou
+        int[] sortedInserted = Arrays.stream(inserted, 0, insertedCount).boxed()
+                .sorted((a, b) -> compareByName(newSearchNames, newIds, a, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] newByName = new int[keptCount + insertedCount];
+        int from = 0;
+        int to = 0;
+        for (int position : sortedInserted) {
+            int at = insertionPoint(kept, from, keptCount, newSearchNames, newIds, position);
+            System.arraycopy(kept, from, newByName, to, at - from);
+            to += at - from;
+            from = at;
+            newByName[to++] = position;
+        }
+        System.arraycopy(kept, from, newByName, to, keptCount - from);
+
+        return new AnimeCatalogSnapshot(Arrays.copyOf(newIds, size), Arrays.copyOf(newNames, size),
+                Arrays.copyOf(newSearchNames, size), Arrays.copyOf(newVersions, size), newByName, newDigest);
+    }
+
+    public String getVersion() {
+        return Long.toUnsignedString(digest, 36);
+    }
+
+    //Mesmos animes, nomes e versões: o recarregamento completo mantém a cópia atual
+    public boolean hasSameContent(AnimeCatalogSnapshot other) {
+        return Arrays.equals(ids, other.ids) && Arrays.equals(names, other.names) && Arrays.equals(versions, other.versions);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    //Retorna null se o anime não existe
+    public Anime get(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? null : toAnime(index);
+    }
+
+    public List<Anime> toList() {
+        List<Anime> animes = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) animes.add(toAnime(i));
+        return animes;
+    }
+
+    //Não diferencia maiúsculas de minúsculas, como a comparação de texto padrão do MySQL
+    public List<Anime> findByName(String name) {
+        String searchName = Anime.normalize(name);
+        if (searchName == null) return List.of();
+        int low = 0;
+        int high = byName.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            String candidate = searchNames[byName[middle]];
+            if (candidate == null || candidate.compareTo(searchName) < 0) low = middle + 1;
+            else high = middle;
+        }
+        List<Anime> animes = new ArrayList<>(1);
+        for (int i = low; i < byName.length && searchName.equals(searchNames[byName[i]]); i++)
+            animes.add(toAnime(byName[i]));
+        return animes;
+    }
+
+    //As entidades retornadas são novas a cada chamada e não pertencem a nenhum contexto de persistência
+    private Anime toAnime(int index) {
+        return Anime.builder()
+                .id(ids[index])
+                .name(names[index])
+                .version(versions[index])
+                .searchName(searchNames[index])
+                .build();
+    }
+
+    //Primeira posição de kept[from, to) cujo anime vem depois do anime em "position"
+    private static int insertionPoint(int[] kept, int from, int to, String[] searchNames, long[] ids, int position) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareByName(searchNames, ids, kept[middle], position) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    //Pelo nome em letras minúsculas (null primeiro) e depois pelo id, a mesma ordem da busca por nome
+    private static int compareByName(String[] searchNames, long[] ids, int a, int b) {
+        String first = searchNames[a];
+        String second = searchNames[b];
+        int result = first == null ? (second == null ? 0 : -1) : (second == null ? 1 : first.compareTo(second));
+        return result != 0 ? result : Long.compare(ids[a], ids[b]);
+    }
+
+    //Espalha os bits (finalizador do SplitMix64): a soma de dois conteúdos diferentes dificilmente coincide
+    private static long hash(long id, String name, long version) {
+        long hash = id * 0x9E3779B97F4A7C15L + version;
+        hash = hash * 0xBF58476D1CE4E5B9L + (name == null ? 0 : name.hashCode());
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static long versionOf(Anime anime) {
+        return anime.getVersion() == null ? 0 : anime.getVersion();
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.config.AnimeCollectionVersionProperties;
+import com.github.alkhanm.repository.AnimeCollectionVersionRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Versão da coleção de animes usada no ETag de /animes/all, mantida em memória: as requisições e as alterações não acessam o banco
+** Cada alteração desta instância incrementa um contador local depois do commit (changed), sem nenhuma instrução SQL
+** A cada anime.collection-version.sync-interval, uma thread soma as alterações pendentes ao marcador (AnimeCollectionVersion)
+** com um único UPDATE e relê o valor, que passa a incluir as alterações das demais instâncias
+** A linha do marcador é alterada no máximo uma vez por intervalo por instância e nunca dentro da transação de uma alteração
+** As alterações ainda não somadas se perdem se a instância parar abruptamente, no encerramento normal elas são gravadas */
+@Log4j2
+@Component
+public class AnimeCollectionVersionTracker {
+    private final AnimeCollectionVersionRepository repository;
+    private final AnimeCollectionVersionProperties properties;
+    //Gravado no primário (transação de escrita), em uma transação própria e curta
+    private final TransactionTemplate primary;
+    //Alterações confirmadas por esta instância desde a sua inicialização
+    private final AtomicLong changes = new AtomicLong();
+    private volatile Synced synced;
+    private ScheduledExecutorService syncer;
+
+    public AnimeCollectionVersionTracker(AnimeCollectionVersionRepository repository,
+                                         AnimeCollectionVersionProperties properties,
+                                         PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.properties = properties;
+        this.primary = new TransactionTemplate(transactionManager);
+        this.primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /* O marcador lido na última sincronização, mais as alterações desta instância feitas depois dela
+    ** Nunca diminui: o marcador cresce ao menos o que esta instância somou a ele */
+    public long current() {
+        Synced current = synced;
+        if (current == null) current = load();
+        return current.version + changes.get() - current.changes;
+    }
+
+    //Se houver uma transação, o contador é incrementado apenas depois do commit, uma transação desfeita não o altera
+    public void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changes.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changes.incrementAndGet();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (syncer != null) return;
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "anime-collection-version-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getSyncInterval().toMillis();
+        syncer.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (syncer == null) return;
+        syncer.shutdownNow();
+        syncQuietly();
+    }
+
+    void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("Could not sync the anime collection version, trying again in {}", properties.getSyncInterval(), e);
+        }
+    }
+
+    //A primeira leitura, feita por uma única requisição
+    private synchronized Synced load() {
+        if (synced == null) sync();
+        return synced;
+    }
+
+    /* As sincronizações são sequenciais: duas delas não podem somar as mesmas alterações pendentes
+    ** As alterações confirmadas depois da leitura do contador ficam para a próxima */
+    private synchronized void sync() {
+        Synced previous = synced;
+        long local = changes.get();
+        long pending = local - (previous == null ? 0 : previous.changes);
+        Long version = primary.execute(status -> {
+            if (pending > 0) repository.add(pending);
+            return repository.findVersion().orElse(0L);
+        });
+        synced = new Synced(version == null ? 0 : version, local);
+    }
+
+    //Lidos juntos pelas requisições, por isso em um único objeto imutável
+    private static final class Synced {
+        private final long version;
+        private final long changes;
+
+        private Synced(long version, long changes) {
+            this.version = version;
+            this.changes = changes;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.exception.BadRequestException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/* Posição de uma listagem por cursor: a coluna de ordenação e os valores (nome, id) do último anime entregue
+** É enviada ao cliente como um texto opaco em Base64 */
+@Getter
+class AnimeCursor {
+    static final String SORT_BY_ID = "id";
+    static final String SORT_BY_NAME = "name";
+
+    private static final String SEPARATOR = ":";
+
+    private final String sort;
+    private final long id;
+    private final String name;
+
+    private AnimeCursor(String sort, long id, String name) {
+        this.sort = sort;
+        this.id = id;
+        this.name = name;
+    }
+
+    //Cursor da primeira página
+    static AnimeCursor first(String sort) {
+        if (!SORT_BY_ID.equals(sort) && !SORT_BY_NAME.equals(sort))
+            throw new BadRequestException("Invalid sort, use 'id' or 'name'");
+        return new AnimeCursor(sort, 0L, "");
+    }
+
+    static AnimeCursor after(String sort, Anime last) {
+        return new AnimeCursor(sort, last.getId(), last.getName());
+    }
+
+    static AnimeCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            //O nome fica por último pois pode conter o separador
+            String[] parts = decoded.split(SEPARATOR, 3);
+            AnimeCursor cursor = first(parts[0]);
+            return new AnimeCursor(cursor.sort, Long.parseLong(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String value = sort + SEPARATOR + id + SEPARATOR + (SORT_BY_NAME.equals(sort) ? name : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.exception.BadRequestException;
+import com.github.alkhanm.repository.AnimeReactiveRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class AnimeReactiveService {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final AnimeReactiveRepository repository;
+
+    public AnimeReactiveService(AnimeReactiveRepository repository) {
+        this.repository = repository;
+    }
+
+    public Flux<Anime> listAll() {
+        return repository.findAll();
+    }
+
+    public Flux<Anime> listPage(int page, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return repository.findPage((long) Math.max(page, 0) * limit, limit);
+    }
+
+    public Mono<Anime> findByIdOrThrowException(long id) {
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new BadRequestException("Anime not found")));
+    }
+
+    public Flux<Anime> findByName(String name) {
+        return repository.findByName(name);
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.alkhanm.service;
+
+public enum AnimeSearchMode {
+    //O nome começa com o texto buscado, utiliza o índice da coluna search_name
+    PREFIX,
+    //O nome contém o texto buscado em qualquer posição
+    CONTAINS
+}
@@ -1,59 +1,468 @@
 package com.github.alkhanm.service;
 
+import com.github.alkhanm.config.AnimeBatchProperties;
+import com.github.alkhanm.config.BatchLoaderProperties;
+import com.github.alkhanm.config.CacheConfig;
 import com.github.alkhanm.domain.Anime;
 import com.github.alkhanm.exception.BadRequestException;
+import com.github.alkhanm.exception.PreconditionFailedException;
 import com.github.alkhanm.mapper.AnimeMapper;
 import com.github.alkhanm.repository.AnimeRepository;
+import com.github.alkhanm.request.AnimePatchRequestBody;
 import com.github.alkhanm.request.AnimePostRequestBody;
 import com.github.alkhanm.request.AnimePutRequestBody;
+import com.github.alkhanm.response.AnimeMultiGetResponse;
+import com.github.alkhanm.response.BatchItemResult;
+import com.github.alkhanm.response.BatchItemStatus;
+import com.github.alkhanm.response.BatchResponse;
+import com.github.alkhanm.util.BatchLoader;
+import com.github.alkhanm.util.SingleFlight;
+import com.github.alkhanm.wrapper.CursorPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.transaction.Transactional;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AnimeService {
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_PAGE_SIZE = 50;
+    private static final String NULL_ITEM = "The item cannot be null";
+    private static final String NULL_ID = "The anime id cannot be null";
+
     private final AnimeRepository repository;
+    //Versão da coleção guardada em memória, usada no ETag de /animes/all sem consultar o banco de dados
+    private final AnimeCollectionVersionTracker versionTracker;
+    //Sem o catálogo, /animes/all é lido no primário, onde a versão em memória é lida
+    private final TransactionTemplate primary;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final AnimeBatchProperties batchProperties;
+    private final Cache cache;
+    //Incrementada depois do commit de cada alteração, antes da remoção do cache (que envolve a transação, CacheConfig)
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    //Buscas simultâneas pelo mesmo id ou nome executam uma única consulta
+    private final SingleFlight<Long, Optional<Anime>> findByIdFlight;
+    private final SingleFlight<String, List<Anime>> findByNameFlight;
+    //Buscas simultâneas por ids diferentes executam um único SELECT ... WHERE id IN (...)
+    private final BatchLoader<Long, Anime> findByIdLoader;
+    //Cópia dos animes em memória (anime.catalog.enabled), quando carregada as leituras não acessam o banco de dados
+    private final AnimeCatalog catalog;
 
-    public AnimeService(AnimeRepository repository) {
+    public AnimeService(AnimeRepository repository, AnimeCollectionVersionTracker versionTracker,
+                        EntityManager entityManager, Validator validator,
+                        AnimeBatchProperties batchProperties, BatchLoaderProperties batchLoaderProperties,
+                        AnimeCatalog catalog, PlatformTransactionManager transactionManager, CacheManager cacheManager,
+                        MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.cache = cacheManager.getCache(CacheConfig.ANIMES_CACHE);
+        this.versionTracker = versionTracker;
+        this.primary = new TransactionTemplate(transactionManager);
+        this.primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.catalog = catalog;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.batchProperties = batchProperties;
+        this.findByIdFlight = new SingleFlight<>("AnimeService.findByIdOrThrowException", meterRegistry);
+        this.findByNameFlight = new SingleFlight<>("AnimeService.findByName", meterRegistry);
+        this.findByIdLoader = batchLoaderProperties.isEnabled()
+                ? new BatchLoader<>("AnimeService.findByIdOrThrowException", this::loadAllById,
+                        batchLoaderProperties.getWindow(), batchLoaderProperties.getMaxSize(), meterRegistry)
+                : null;
+    }
+
+    /* Versão de /animes/all, sem acessar o banco de dados
+    ** Com o catálogo carregado é a versão da cópia em memória, que muda apenas quando o conteúdo dela muda
+    ** Sem ele é o marcador guardado em memória, o corpo é lido depois dele e no mesmo primário (listAll), nunca é anterior a ele */
+    public String getAllVersion() {
+        AnimeCatalogSnapshot snapshot = catalog.snapshot();
+        return snapshot != null ? "c" + snapshot.getVersion() : "v" + versionTracker.current();
     }
 
+    //Com réplicas configuradas, as transações somente leitura são atendidas por elas (DataSourceConfig)
+    @Transactional(readOnly = true)
     public Page<Anime> listAll(Pageable pageable) {
         return repository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<Anime> listSlice(Pageable pageable) {
+        return repository.findAllBy(pageable);
+    }
+
+    /* Paginação por cursor (keyset) ordenada por (sort, id)
+    ** O custo de qualquer página é o mesmo da primeira, pois não há OFFSET nem COUNT(*) */
+    public CursorPage<Anime> listByCursor(String cursorToken, int size, String sort) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE)
+            throw new BadRequestException("The page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+
+        AnimeCursor cursor = cursorToken == null ? AnimeCursor.first(sort) : AnimeCursor.decode(cursorToken);
+        //Busca um elemento a mais apenas para saber se existe uma próxima página
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Anime> animes = AnimeCursor.SORT_BY_NAME.equals(cursor.getSort())
+                ? repository.findNextOrderedByName(cursor.getName(), cursor.getId(), limit)
+                : repository.findByIdGreaterThanOrderByIdAsc(cursor.getId(), limit);
+
+        boolean hasNext = animes.size() > size;
+        List<Anime> content = hasNext ? animes.subList(0, size) : animes;
+        String nextCursor = hasNext ? AnimeCursor.after(cursor.getSort(), content.get(size - 1)).encode() : null;
+        return new CursorPage<>(content, size, hasNext, nextCursor);
+    }
+
     public List<Anime> listAll() {
-        return repository.findAll();
+        AnimeCatalogSnapshot snapshot = catalog.snapshot();
+        return snapshot != null ? snapshot.toList() : primary.execute(status -> repository.findAll());
+    }
+
+    /* Entrega os animes um a um ao consumidor, sem carregar a tabela inteira na memória
+    ** Cada anime é removido do contexto de persistência assim que é consumido */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Anime> consumer) {
+        try (Stream<Anime> animes = repository.streamAll()) {
+            animes.forEach(anime -> {
+                consumer.accept(anime);
+                entityManager.detach(anime);
+            });
+        }
     }
 
+    /* Sem @Transactional: a transação somente leitura é a de AnimeRepository.findByName, aberta apenas pela chamada que executa
+    ** a consulta, assim as chamadas que esperam o resultado (SingleFlight) não ocupam conexões do pool */
     public List<Anime> findByName(String name) {
-        return repository.findByName(name);
+        AnimeCatalogSnapshot snapshot = catalog.snapshot();
+        if (snapshot != null) return snapshot.findByName(name);
+        return findByNameFlight.execute(name, () -> detached(repository.findByName(name)));
     }
 
+    /* Guarda o anime em cache, as próximas buscas pelo mesmo id não acessam o banco de dados
+    ** Sem o compute do Caffeine (sync): as buscas simultâneas pelo mesmo id esperam pelo SingleFlight, e a janela do
+    ** BatchLoader nunca é esperada com a entrada do cache bloqueada
+    ** Uma busca iniciada antes do commit de uma alteração pode guardar o anime antigo depois da remoção do cache,
+    ** por isso ela confere a geração depois de guardá-lo: se houve uma alteração durante a busca, o anime é removido */
     public Anime findByIdOrThrowException(long id) {
-        return repository.findById(id)
+        AnimeCatalogSnapshot snapshot = catalog.snapshot();
+        if (snapshot != null) return Optional.ofNullable(snapshot.get(id))
+                .orElseThrow(() -> new BadRequestException("Anime not found"));
+        Anime cached = cache.get(id, Anime.class);
+        if (cached != null) return cached;
+        return findByIdFlight.execute(id, () -> {
+                    long generation = cacheGeneration.get();
+                    Optional<Anime> anime = findByIdLoader != null
+                            ? Optional.ofNullable(findByIdLoader.load(id))
+                            : repository.findById(id).map(this::detached);
+                    anime.ifPresent(found -> {
+                        cache.put(id, found);
+                        if (cacheGeneration.get() != generation) cache.evict(id);
+                    });
+                    return anime;
+                })
                 .orElseThrow(() -> new BadRequestException("Anime not found"));
     }
 
+    /* A consulta compartilhada é executada na thread de uma das requisições, com o contexto de persistência dela (open-in-view)
+    ** Os animes são desanexados antes de serem entregues às outras requisições, que não podem usar esse contexto */
+    private Anime detached(Anime anime) {
+        entityManager.detach(anime);
+        return anime;
+    }
+
+    private List<Anime> detached(List<Anime> animes) {
+        animes.forEach(entityManager::detach);
+        return animes;
+    }
+
+    /* Executado pelo BatchLoader, um lote com um único id usa a mesma consulta da busca individual
+    ** Os animes do lote são entregues às threads das outras buscas, por isso também são desanexados */
+    private Map<Long, Anime> loadAllById(Collection<Long> ids) {
+        if (ids.size() == 1) {
+            Long id = ids.iterator().next();
+            return repository.findById(id).map(anime -> Map.of(id, detached(anime))).orElse(Map.of());
+        }
+        return detached(repository.findAllById(ids)).stream()
+                .collect(Collectors.toMap(Anime::getId, Function.identity()));
+    }
+
+    //Busca vários animes com um único SELECT ... IN, os ids inexistentes são informados na resposta e não geram erro
+    public AnimeMultiGetResponse findByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty())
+            throw new BadRequestException("At least one id must be informed");
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > batchProperties.getMaxIds())
+            throw new BadRequestException("Cannot search for more than " + batchProperties.getMaxIds() + " ids");
+        if (distinctIds.contains(null))
+            throw new BadRequestException("The ids cannot be empty");
+
+        AnimeCatalogSnapshot snapshot = catalog.snapshot();
+        Map<Long, Anime> found = snapshot != null
+                ? distinctIds.stream().map(snapshot::get).filter(Objects::nonNull)
+                        .collect(Collectors.toMap(Anime::getId, Function.identity()))
+                : repository.findAllById(distinctIds).stream()
+                        .collect(Collectors.toMap(Anime::getId, Function.identity()));
+        List<Anime> animes = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Anime anime = found.get(id);
+            if (anime != null) animes.add(anime);
+            else missing.add(id);
+        }
+        return new AnimeMultiGetResponse(animes, missing);
+    }
+
+    /* Busca sem diferenciar maiúsculas de minúsculas, paginada e limitada a MAX_SEARCH_PAGE_SIZE animes por página
+    ** A busca por prefixo percorre apenas o trecho necessário do índice, mesmo com milhões de animes */
+    public Slice<Anime> search(String query, AnimeSearchMode mode, int page, int size) {
+        if (query == null || query.isBlank())
+            throw new BadRequestException("The search text cannot be empty");
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE),
+                Sort.by("searchName", "id"));
+        String normalized = Anime.normalize(query.trim());
+        return mode == AnimeSearchMode.CONTAINS
+                ? repository.findBySearchNameContaining(normalized, pageable)
+                : repository.findBySearchNameStartingWith(normalized, pageable);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void fillMissingSearchNames() {
+        repository.fillMissingSearchNames();
+    }
+
     /* Uma transação só será concluída (no caso, o objeto será salvo)
     ** se todas as operações ocorrerem sem erro algum */
-    @Transactional(rollbackOn = Exception.class)
+    @Transactional(rollbackFor = Exception.class)
+    @CachePut(cacheNames = CacheConfig.ANIMES_CACHE, key = "#result.id")
     public Anime save(AnimePostRequestBody animePostRequestBody){
         //Converte de um tipo para outro, e então salva
-        return repository.save(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+        Anime anime = repository.save(AnimeMapper.INSTANCE.toAnime(animePostRequestBody));
+        changed(List.of(anime.getId()));
+        return anime;
     }
 
+    //Remove o anime do cache apenas se a operação for bem-sucedida
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_CACHE, key = "#id")
     public void delete(long id) {
         repository.deleteById(id);
+        changed(List.of(id));
+    }
+
+    /* expectedVersion é a versão que o cliente leu (If-Match), null aceita qualquer versão
+    ** Executa um único UPDATE ... WHERE id = ? (AND version = ?), sem carregar o anime */
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_CACHE, key = "#animePutRequestBody.id")
+    public void replace(AnimePutRequestBody animePutRequestBody, Long expectedVersion) {
+        String violations = validate(animePutRequestBody);
+        if (violations != null) throw new BadRequestException(violations);
+        if (animePutRequestBody.getId() == null) throw new BadRequestException("Anime not found");
+        updateName(animePutRequestBody.getId(), animePutRequestBody.getName(), expectedVersion);
+    }
+
+    //Altera apenas os campos presentes no corpo da requisição
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_CACHE, key = "#id")
+    public void patch(long id, AnimePatchRequestBody animePatchRequestBody, Long expectedVersion) {
+        String violations = validate(animePatchRequestBody);
+        if (violations != null) throw new BadRequestException(violations);
+        if (animePatchRequestBody.getName() == null)
+            throw new BadRequestException("The patch must change at least one field");
+        updateName(id, animePatchRequestBody.getName(), expectedVersion);
+    }
+
+    /* As operações em lote validam cada item individualmente: itens inválidos são reportados na resposta
+    ** e os demais são gravados em lotes JDBC de "anime.batch.size" instruções */
+    @Transactional(rollbackFor = Exception.class)
+    public BatchResponse saveAll(List<AnimePostRequestBody> animePostRequestBodies) {
+        checkBatchSize(animePostRequestBodies);
+        List<BatchItemResult> results = new ArrayList<>(animePostRequestBodies.size());
+        int pending = 0;
+        for (int index = 0; index < animePostRequestBodies.size(); index++) {
+            AnimePostRequestBody body = animePostRequestBodies.get(index);
+            String violations = body == null ? NULL_ITEM : validate(body);
+            if (violations != null) {
+                results.add(invalid(index, null, violations));
+                continue;
+            }
+            Anime anime = AnimeMapper.INSTANCE.toAnime(body);
+            entityManager.persist(anime);
+            results.add(BatchItemResult.builder().index(index).id(anime.getId()).status(BatchItemStatus.CREATED).build());
+            if (++pending % batchProperties.getSize() == 0) flushAndClear();
+        }
+        changed(results, BatchItemStatus.CREATED);
+        return BatchResponse.of(results);
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_CACHE, allEntries = true)
+    public BatchResponse replaceAll(List<AnimePutRequestBody> animePutRequestBodies) {
+        checkBatchSize(animePutRequestBodies);
+        BatchItemResult[] results = new BatchItemResult[animePutRequestBodies.size()];
+        List<Integer> chunk = new ArrayList<>(batchProperties.getSize());
+        for (int index = 0; index < animePutRequestBodies.size(); index++) {
+            AnimePutRequestBody body = animePutRequestBodies.get(index);
+            String violations = body == null ? NULL_ITEM
+                    : body.getId() == null ? NULL_ID : validate(body);
+            if (violations != null) {
+                results[index] = invalid(index, body == null ? null : body.getId(), violations);
+                continue;
+            }
+            chunk.add(index);
+            if (chunk.size() == batchProperties.getSize()) replaceChunk(animePutRequestBodies, chunk, results);
+        }
+        replaceChunk(animePutRequestBodies, chunk, results);
+        List<BatchItemResult> response = List.of(results);
+        changed(response, BatchItemStatus.UPDATED);
+        return BatchResponse.of(response);
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheConfig.ANIMES_CACHE, allEntries = true)
+    public BatchResponse deleteAll(List<Long> ids) {
+        checkBatchSize(ids);
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += batchProperties.getSize()) {
+            List<Long> chunk = ids.subList(start, Math.min(start + batchProperties.getSize(), ids.size()));
+            List<Long> chunkIds = chunk.stream().filter(Objects::nonNull).collect(Collectors.toList());
+            Set<Long> existingIds = chunkIds.isEmpty() ? Set.of() : new HashSet<>(repository.findExistingIds(chunkIds));
+            if (!existingIds.isEmpty()) repository.deleteByIdIn(existingIds);
+            for (int offset = 0; offset < chunk.size(); offset++) {
+                Long id = chunk.get(offset);
+                if (id == null) {
+                    results.add(invalid(start + offset, null, NULL_ID));
+                    continue;
+                }
+                results.add(BatchItemResult.builder()
+                        .index(start + offset)
+                        .id(id)
+                        .status(existingIds.contains(id) ? BatchItemStatus.DELETED : BatchItemStatus.NOT_FOUND)
+                        .build());
+            }
+        }
+        changed(results, BatchItemStatus.DELETED);
+        return BatchResponse.of(results);
+    }
+
+    //Busca os animes do lote com uma única consulta, as alterações são enviadas em lote no flush
+    private void replaceChunk(List<AnimePutRequestBody> bodies, List<Integer> chunk, BatchItemResult[] results) {
+        if (chunk.isEmpty()) return;
+        Set<Long> ids = chunk.stream().map(index -> bodies.get(index).getId()).collect(Collectors.toSet());
+        Map<Long, Anime> animes = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Anime::getId, Function.identity()));
+        for (int index : chunk) {
+            AnimePutRequestBody body = bodies.get(index);
+            Anime anime = animes.get(body.getId());
+            if (anime == null) {
+                results[index] = BatchItemResult.builder().index(index).id(body.getId())
+                        .status(BatchItemStatus.NOT_FOUND).message("Anime not found").build();
+                continue;
+            }
+            anime.setName(body.getName());
+            results[index] = BatchItemResult.builder().index(index).id(body.getId()).status(BatchItemStatus.UPDATED).build();
+        }
+        flushAndClear();
+        chunk.clear();
+    }
+
+    //Nenhuma linha alterada: o anime não existe ou a versão informada não é mais a atual
+    private void updateName(long id, String name, Long expectedVersion) {
+        int updated = expectedVersion == null
+                ? repository.updateName(id, name, Anime.normalize(name))
+                : repository.updateNameIfVersion(id, name, Anime.normalize(name), expectedVersion);
+        if (updated > 0) {
+            changed(List.of(id));
+            return;
+        }
+        if (expectedVersion == null || !repository.existsById(id)) throw new BadRequestException("Anime not found");
+        throw new PreconditionFailedException("The anime was modified by another request");
+    }
+
+    /* Depois do commit, os animes alterados são relidos pelo catálogo e a versão em memória é incrementada
+    ** Nenhuma instrução é executada na transação da alteração. Um lote sem nenhum anime alterado não muda os ETags */
+    private void changed(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        afterCommit(cacheGeneration::incrementAndGet);
+        //Registrada depois do catálogo: as sincronizações rodam na ordem, a nova versão só aparece com os animes já atualizados
+        catalog.refresh(ids);
+        versionTracker.changed();
+    }
+
+    private void changed(List<BatchItemResult> results, BatchItemStatus status) {
+        changed(results.stream()
+                .filter(result -> result.getStatus() == status)
+                .map(BatchItemResult::getId)
+                .collect(Collectors.toList()));
+    }
+
+    //Sem uma transação ativa a ação é executada imediatamente
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    //Um corpo ausente ou null é rejeitado por inteiro, um item null é reportado como inválido na sua posição
+    private void checkBatchSize(List<?> items) {
+        if (items == null) throw new BadRequestException("The batch cannot be empty");
+        if (items.size() > batchProperties.getMaxItems())
+            throw new BadRequestException("A batch cannot have more than " + batchProperties.getMaxItems() + " items");
+    }
+
+    //Retorna as mensagens de validação do item, ou null se ele for válido
+    private String validate(Object body) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(body);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining(", "));
+    }
+
+    private BatchItemResult invalid(int index, Long id, String message) {
+        return BatchItemResult.builder().index(index).id(id).status(BatchItemStatus.INVALID).message(message).build();
     }
 
-    public void replace(AnimePutRequestBody animePutRequestBody) {
-        Anime animeSaved = findByIdOrThrowException(animePutRequestBody.getId());
-        Anime anime = AnimeMapper.INSTANCE.toAnime(animePutRequestBody);
-        anime.setId(animeSaved.getId());
-        repository.save(anime);
+    //Envia o lote atual ao banco de dados e libera a memória do contexto de persistência
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
     }
 }
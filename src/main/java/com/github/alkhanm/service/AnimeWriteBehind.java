@@ -0,0 +1,195 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.config.WriteBehindProperties;
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.exception.BadRequestException;
+import com.github.alkhanm.exception.ServiceUnavailableException;
+import com.github.alkhanm.request.AnimePostRequestBody;
+import com.github.alkhanm.response.AnimeIngestResponse;
+import com.github.alkhanm.response.AnimeIngestStatus;
+import com.github.alkhanm.response.BatchItemResult;
+import com.github.alkhanm.response.BatchItemStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/* Gravação assíncrona (write-behind) de POST /animes: a requisição é validada, enfileirada e respondida com 202 e um id de acompanhamento
+** Uma única thread esvazia a fila e grava os animes acumulados em uma transação (AnimeService.saveAll, em lotes JDBC),
+** então uma rajada de requisições ocupa uma conexão do pool, e não uma por requisição
+** A fila é limitada: cheia, as novas requisições recebem 503 com Retry-After em vez de esperar
+** No encerramento normal o que restou na fila é gravado, se a instância parar abruptamente esses animes são perdidos */
+@Log4j2
+@Component
+public class AnimeWriteBehind {
+    private static final long POLL_MILLIS = 100;
+
+    private final AnimeService service;
+    private final WriteBehindProperties properties;
+    private final BlockingQueue<Pending> queue;
+    private final Cache<UUID, AnimeIngestResponse> statuses;
+    private final Timer flushes;
+    private final Timer latency;
+    private final Counter rejected;
+    private volatile boolean running;
+    private Thread writer;
+
+    public AnimeWriteBehind(AnimeService service, WriteBehindProperties properties, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(properties.getCapacity(), 1));
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedIds())
+                .expireAfterWrite(properties.getStatusTtl())
+                .build();
+        meterRegistry.gauge("anime.write-behind.queue.depth", queue, BlockingQueue::size);
+        this.flushes = Timer.builder("anime.write-behind.flush")
+                .description("Duração da gravação de cada lote de animes enfileirados")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.latency = Timer.builder("anime.write-behind.latency")
+                .description("Tempo entre a requisição e a gravação do anime")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("anime.write-behind.rejected");
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    //O corpo já foi validado pelo controller (@Valid)
+    public AnimeIngestResponse submit(AnimePostRequestBody body) {
+        UUID trackingId = UUID.randomUUID();
+        AnimeIngestResponse pending = AnimeIngestResponse.builder()
+                .trackingId(trackingId)
+                .status(AnimeIngestStatus.PENDING)
+                .build();
+        //Registrado antes de enfileirar, a thread de gravação pode concluir o anime antes do retorno do offer
+        statuses.put(trackingId, pending);
+        if (!queue.offer(new Pending(trackingId, body, System.nanoTime()))) {
+            statuses.invalidate(trackingId);
+            rejected.increment();
+            throw new ServiceUnavailableException("The write queue is full, try again later", properties.getRetryAfter());
+        }
+        return pending;
+    }
+
+    public AnimeIngestResponse status(UUID trackingId) {
+        AnimeIngestResponse status = statuses.getIfPresent(trackingId);
+        if (status == null) throw new BadRequestException("Tracking id not found");
+        return status;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.isEnabled() || writer != null) return;
+        running = true;
+        writer = new Thread(this::run, "anime-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (writer == null) return;
+        running = false;
+        writer.join(properties.getShutdownTimeout().toMillis());
+        if (!queue.isEmpty()) log.warn("{} queued animes were not written before the shutdown", queue.size());
+    }
+
+    //Continua até esvaziar a fila depois do stop
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) flush(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in the write-behind writer", e);
+            }
+        }
+    }
+
+    //Grava o que estiver na fila, usado pelos testes no lugar da thread de gravação
+    void flushQueued() {
+        Pending first = queue.poll();
+        if (first != null) flush(first);
+    }
+
+    /* O lote (o primeiro anime e os que já estiverem na fila, até maxBatchSize) é gravado em uma única transação
+    ** Se ela falhar, cada anime é gravado na sua própria transação: um anime com erro não descarta os demais */
+    private void flush(Pending first) {
+        List<Pending> batch = new ArrayList<>(Math.min(queue.size() + 1, properties.getMaxBatchSize()));
+        batch.add(first);
+        queue.drainTo(batch, properties.getMaxBatchSize() - 1);
+        long start = System.nanoTime();
+        try {
+            List<BatchItemResult> results = service.saveAll(batch.stream()
+                            .map(pending -> pending.body)
+                            .collect(Collectors.toList()))
+                    .getItems();
+            for (int index = 0; index < batch.size(); index++) {
+                BatchItemResult result = results.get(index);
+                if (result.getStatus() == BatchItemStatus.CREATED) complete(batch.get(index), result.getId());
+                else fail(batch.get(index), result.getMessage());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} queued animes in one transaction, writing them one by one", batch.size(), e);
+            for (Pending pending : batch) {
+                try {
+                    Anime anime = service.save(pending.body);
+                    complete(pending, anime.getId());
+                } catch (RuntimeException saveException) {
+                    fail(pending, saveException.getMessage());
+                }
+            }
+        }
+        flushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void complete(Pending pending, Long id) {
+        latency.record(System.nanoTime() - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+        statuses.put(pending.trackingId, AnimeIngestResponse.builder()
+                .trackingId(pending.trackingId)
+                .status(AnimeIngestStatus.CREATED)
+                .id(id)
+                .build());
+    }
+
+    private void fail(Pending pending, String message) {
+        statuses.put(pending.trackingId, AnimeIngestResponse.builder()
+                .trackingId(pending.trackingId)
+                .status(AnimeIngestStatus.FAILED)
+                .message(message)
+                .build());
+    }
+
+    private static final class Pending {
+        private final UUID trackingId;
+        private final AnimePostRequestBody body;
+        private final long enqueuedAt;
+
+        private Pending(UUID trackingId, AnimePostRequestBody body, long enqueuedAt) {
+            this.trackingId = trackingId;
+            this.body = body;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.alkhanm.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Usuário alterado ou removido, com o nome de usuário atual (ou o último, se ele foi removido)
+@Getter
+@AllArgsConstructor
+public class MyUserChangedEvent {
+    private final Long id;
+    private final String username;
+}
@@ -1,18 +1,24 @@
 package com.github.alkhanm.service;
 
+import com.github.alkhanm.domain.MyUser;
 import com.github.alkhanm.repository.MyUserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class MyUserDetailsService implements UserDetailsService {
 
     private final MyUserRepository repository;
+    //As alterações são publicadas como MyUserChangedEvent, o cache de autenticações (AuthenticationCache) remove o usuário
+    private final ApplicationEventPublisher eventPublisher;
 
-    public MyUserDetailsService(MyUserRepository repository) {
+    public MyUserDetailsService(MyUserRepository repository, ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -21,4 +27,19 @@ public class MyUserDetailsService implements UserDetailsService {
                 .findAny()
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado"));
     }
+
+    @Transactional(rollbackFor = Exception.class)
+    public MyUser save(MyUser user) {
+        MyUser saved = repository.save(user);
+        eventPublisher.publishEvent(new MyUserChangedEvent(saved.getId(), saved.getUsername()));
+        return saved;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public void delete(long id) {
+        repository.findById(id).ifPresent(user -> {
+            repository.delete(user);
+            eventPublisher.publishEvent(new MyUserChangedEvent(user.getId(), user.getUsername()));
+        });
+    }
 }
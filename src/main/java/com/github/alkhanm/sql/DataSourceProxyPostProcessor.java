@@ -0,0 +1,22 @@
+package com.github.alkhanm.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/* Envolve os DataSources com um proxy que repassa cada instrução executada ao SqlStatementCounter
+** O proxy delega unwrap/isWrapperFor, então as métricas do Hikari (hikaricp.*) continuam sendo publicadas */
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) return bean;
+        return ProxyDataSourceBuilder.create((DataSource) bean)
+                .name(beanName)
+                .listener(counter)
+                .build();
+    }
+}
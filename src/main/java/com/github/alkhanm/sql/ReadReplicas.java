@@ -0,0 +1,138 @@
+package com.github.alkhanm.sql;
+
+import lombok.extern.log4j.Log4j2;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* Réplicas de leitura distribuídas em rodízio (round-robin) entre as que estão saudáveis
+** Uma réplica fica indisponível quando a conexão falha ou quando o seu atraso passa de maxLag,
+** e volta a receber leituras na próxima verificação bem-sucedida */
+@Log4j2
+public class ReadReplicas implements AutoCloseable {
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final String lagQuery;
+    private final String lagColumn;
+    private final Duration maxLag;
+    private ScheduledExecutorService healthChecker;
+
+    public ReadReplicas(Map<String, DataSource> dataSources, String lagQuery, String lagColumn, Duration maxLag) {
+        dataSources.forEach((name, dataSource) -> replicas.add(new Replica(name, dataSource)));
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLag = maxLag;
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    //Retorna a próxima réplica saudável ou null quando nenhuma está disponível
+    public Replica select() {
+        int size = replicas.size();
+        if (size == 0) return null;
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) return replica;
+        }
+        return null;
+    }
+
+    //Verifica todas as réplicas periodicamente, em uma thread separada das requisições
+    public void start(Duration interval) {
+        if (replicas.isEmpty() || healthChecker != null) return;
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-replicas-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                long lag = lag(connection);
+                if (lag > maxLag.getSeconds()) replica.markDown("lag of " + lag + "s");
+                else replica.markUp();
+            } catch (Exception e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    private long lag(Connection connection) throws SQLException {
+        if (lagQuery == null) {
+            if (!connection.isValid(5)) throw new SQLException("Invalid connection");
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) throw new SQLException("Replication is not configured");
+            long lag = lagColumn == null ? resultSet.getLong(1) : resultSet.getLong(lagColumn);
+            //NULL: a replicação está parada
+            if (resultSet.wasNull()) throw new SQLException("Replication is stopped");
+            return lag;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) replica.dataSource).close();
+                } catch (Exception e) {
+                    log.warn("Could not close the replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        void markDown(String reason) {
+            if (healthy) log.warn("Read replica {} is unavailable, reads will use the primary: {}", name, reason);
+            healthy = false;
+        }
+
+        void markUp() {
+            if (!healthy) log.info("Read replica {} is available again", name);
+            healthy = true;
+        }
+    }
+}
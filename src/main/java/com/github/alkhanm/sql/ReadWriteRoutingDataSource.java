@@ -0,0 +1,41 @@
+package com.github.alkhanm.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/* Envia as transações somente leitura (@Transactional(readOnly = true)) para uma réplica e todo o resto para o primário
+** Deve ser envolvido por um LazyConnectionDataSourceProxy: o gerenciador de transações pede a conexão antes de
+** marcar a transação como somente leitura, o proxy adia esse pedido até a primeira instrução
+** unwrap/isWrapperFor são delegados ao primário, assim as métricas do Hikari continuam sendo publicadas */
+public class ReadWriteRoutingDataSource extends DelegatingDataSource {
+    private final ReadReplicas replicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReadReplicas replicas) {
+        super(primary);
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReadReplicas.Replica replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? replicas.select() : null;
+        if (replica == null) return obtainTargetDataSource().getConnection();
+        try {
+            return replica.getDataSource().getConnection();
+        } catch (SQLException e) {
+            //Não espera a próxima verificação, a leitura é feita no primário
+            replica.markDown(e.getMessage());
+            return obtainTargetDataSource().getConnection();
+        }
+    }
+
+    //Conexões com outro usuário não fazem parte do rodízio das réplicas
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return obtainTargetDataSource().getConnection(username, password);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.alkhanm.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/* Recebe cada instrução executada pelo DataSource e a soma às estatísticas da thread atual
+** Fora de uma contagem (start/count) as instruções são ignoradas. Nos testes:
+**   SqlStatistics statistics = SqlStatementCounter.count(() -> service.replace(anime, null));
+**   Assertions.assertThat(statistics.getStatements()).isEqualTo(1); */
+public class SqlStatementCounter implements QueryExecutionListener {
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    //Conta apenas as instruções executadas por "action", preservando uma contagem que já estivesse ativa
+    public static SqlStatistics count(Runnable action) {
+        SqlStatistics previous = CURRENT.get();
+        SqlStatistics statistics = start();
+        try {
+            action.run();
+        } finally {
+            if (previous == null) stop();
+            else CURRENT.set(previous);
+        }
+        return statistics;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics == null) return;
+        String query = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        statistics.record(query, execInfo.getElapsedTime(), TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+}
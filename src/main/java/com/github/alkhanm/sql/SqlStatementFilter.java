@@ -0,0 +1,94 @@
+package com.github.alkhanm.sql;
+
+import com.github.alkhanm.config.SqlMonitoringProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/* Conta as instruções SQL executadas durante cada requisição
+** - cabeçalhos X-SQL-Statements e X-SQL-Time-Ms, escritos antes de a resposta ser enviada
+** - métricas http.server.requests.sql.statements e http.server.requests.sql.time, com as tags method, uri e outcome
+** - log das requisições que passam dos limites de anime.sql.* ou que repetem a mesma consulta (N+1)
+** Apenas a thread da requisição é contada, as exportações assíncronas (/animes/all/stream) e o R2DBC não */
+@Log4j2
+public class SqlStatementFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String STATEMENTS_METRIC = "http.server.requests.sql.statements";
+    public static final String TIME_METRIC = "http.server.requests.sql.time";
+
+    private final SqlMonitoringProperties properties;
+    private final MeterRegistry registry;
+
+    public SqlStatementFilter(SqlMonitoringProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatementCounter.start();
+        HttpServletResponse wrapper = properties.isHeaders() ? new HeaderWriter(response, statistics) : response;
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            SqlStatementCounter.stop();
+            if (properties.isHeaders() && !response.isCommitted()) writeHeaders(response, statistics);
+            record(request, response, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri,
+                "outcome", Outcome.forStatus(response.getStatus()).name());
+        DistributionSummary.builder(STATEMENTS_METRIC).tags(tags).register(registry)
+                .record(statistics.getStatements());
+        Timer.builder(TIME_METRIC).tags(tags).register(registry)
+                .record(statistics.getTimeMillis(), TimeUnit.MILLISECONDS);
+
+        if (statistics.getStatements() > properties.getStatementThreshold()
+                || statistics.getTimeMillis() > properties.getTimeThreshold().toMillis()) {
+            log.warn("{} {} executed {}", request.getMethod(), uri, statistics);
+        }
+        Map<String, Integer> repeated = statistics.getRepeated(properties.getRepeatedStatementThreshold());
+        repeated.forEach((query, times) ->
+                log.warn("{} {} executed the same statement {} times, possible N+1: {}", request.getMethod(), uri, times, query));
+    }
+
+    private static void writeHeaders(HttpServletResponse response, SqlStatistics statistics) {
+        response.setHeader(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+        response.setHeader(TIME_HEADER, String.valueOf(statistics.getTimeMillis()));
+    }
+
+    //Os cabeçalhos precisam ser escritos antes do corpo, quando a resposta ainda não foi enviada
+    private static class HeaderWriter extends OnCommittedResponseWrapper {
+        private final SqlStatistics statistics;
+
+        HeaderWriter(HttpServletResponse response, SqlStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders((HttpServletResponse) getResponse(), statistics);
+        }
+    }
+}
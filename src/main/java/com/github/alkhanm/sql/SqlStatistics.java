@@ -0,0 +1,46 @@
+package com.github.alkhanm.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+//Instruções executadas por uma thread enquanto a contagem estava ativa, ver SqlStatementCounter
+public class SqlStatistics {
+    private int statements;
+    private int readOnlyStatements;
+    private long timeMillis;
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    void record(String query, long elapsedMillis, boolean readOnly) {
+        statements++;
+        if (readOnly) readOnlyStatements++;
+        timeMillis += elapsedMillis;
+        executions.merge(query, 1, Integer::sum);
+    }
+
+    //Quantidade de idas ao banco de dados, um lote JDBC conta como uma
+    public int getStatements() {
+        return statements;
+    }
+
+    //Executadas em transações somente leitura, as que o ReadWriteRoutingDataSource envia para as réplicas
+    public int getReadOnlyStatements() {
+        return readOnlyStatements;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    //Instruções executadas mais de "times" vezes, com a quantidade de execuções
+    public Map<String, Integer> getRepeated(int times) {
+        return executions.entrySet().stream()
+                .filter(entry -> entry.getValue() > times)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements in " + timeMillis + " ms";
+    }
+}
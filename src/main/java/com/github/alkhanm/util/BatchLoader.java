@@ -0,0 +1,99 @@
+package com.github.alkhanm.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/* Junta as buscas simultâneas por chaves diferentes em uma única consulta (como o DataLoader do GraphQL)
+** A primeira chamada abre um lote e espera até "window" ou até o lote ter "maxSize" chaves, então executa
+** o loader com todas as chaves na sua própria thread e entrega a cada chamada o seu resultado (null quando não existe)
+** O tamanho dos lotes é publicado em service.batches, com a tag "name" */
+public class BatchLoader<K, V> {
+    public static final String METRIC_NAME = "service.batches";
+
+    private final Function<Collection<K>, Map<K, V>> loader;
+    private final long windowNanos;
+    private final int maxSize;
+    private final DistributionSummary batchSize;
+    private Batch<K, V> current;
+
+    public BatchLoader(String name, Function<Collection<K>, Map<K, V>> loader, Duration window, int maxSize,
+                       MeterRegistry registry) {
+        if (maxSize < 1) throw new IllegalArgumentException("The batch size must be positive");
+        this.loader = loader;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.batchSize = DistributionSummary.builder(METRIC_NAME)
+                .description("Keys resolved by each batched query")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    public V load(K key) {
+        Batch<K, V> batch;
+        CompletableFuture<V> result;
+        boolean leader;
+        synchronized (this) {
+            leader = current == null;
+            if (leader) current = new Batch<>(Thread.currentThread());
+            batch = current;
+            result = batch.results.computeIfAbsent(key, k -> new CompletableFuture<>());
+            //Lote cheio: a próxima chamada abre outro e quem abriu este é acordado
+            if (batch.results.size() >= maxSize) {
+                current = null;
+                batch.full = true;
+            }
+        }
+        if (leader) dispatch(batch);
+        else if (batch.full) LockSupport.unpark(batch.leader);
+        return join(result);
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        long remaining;
+        while (!batch.full && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+        synchronized (this) {
+            if (current == batch) current = null;
+        }
+
+        batchSize.record(batch.results.size());
+        try {
+            Map<K, V> values = loader.apply(batch.results.keySet());
+            batch.results.forEach((key, result) -> result.complete(values.get(key)));
+        } catch (RuntimeException | Error e) {
+            batch.results.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private V join(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    private static class Batch<K, V> {
+        private final Thread leader;
+        //Alterado apenas dentro do synchronized, lido pelo leader depois que o lote é fechado
+        private final Map<K, CompletableFuture<V>> results = new LinkedHashMap<>();
+        private volatile boolean full;
+
+        Batch(Thread leader) {
+            this.leader = leader;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.alkhanm.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/* Agrupa chamadas simultâneas com a mesma chave: a primeira executa a consulta, as demais esperam e recebem o mesmo resultado
+** Nada é guardado depois que a consulta termina, a próxima chamada executa uma nova consulta
+** As chamadas agrupadas são contadas em service.coalesced, com a tag "name" */
+public class SingleFlight<K, V> {
+    public static final String METRIC_NAME = "service.coalesced";
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry registry) {
+        this.coalesced = Counter.builder(METRIC_NAME)
+                .description("Calls that waited for an identical call already in progress")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> current = inFlight.putIfAbsent(key, call);
+        if (current != null) {
+            coalesced.increment();
+            return join(current);
+        }
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    //Repassa a exceção da primeira chamada, sem o CompletionException
+    private V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
@@ -14,6 +14,8 @@ import org.springframework.data.domain.PageRequest;
 
 @Getter
 @Setter
+//Ignora os campos calculados da página (empty, sort...), assim qualquer ObjectMapper, JSON, CBOR ou Smile, consegue lê-la
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class PageableResponse<T> extends PageImpl<T> {
     private boolean first;
     private boolean last;
@@ -0,0 +1,51 @@
+package com.github.alkhanm.config;
+
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.repository.AnimeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Import(AnimeSchemaInitializer.class)
+//O ALTER SEQUENCE encerra a transação do teste no H2, os animes são removidos ao final
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Testes para: AnimeSchemaInitializer")
+class AnimeSchemaInitializerTest {
+    @Autowired
+    private AnimeSchemaInitializer initializer;
+
+    @Autowired
+    private AnimeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Avança a sequência para depois do maior id quando os animes foram gravados sem ela")
+    void advanceSequence_MovesSequencePastExistingIds_WhenSequenceIsBehind() {
+        //Anime gravado antes da sequência existir (IDENTITY), com um id que ela ainda entregaria
+        jdbcTemplate.update("insert into anime (id, name, search_name, version) values (1000, 'Naruto', 'naruto', 0)");
+
+        initializer.advanceSequence();
+        //Já à frente do maior id: não é alterada novamente
+        initializer.advanceSequence();
+        Anime saved = repository.save(Anime.builder().name("Bleach").build());
+
+        Assertions.assertThat(saved.getId())
+                .isGreaterThan(1000L)
+                .isLessThanOrEqualTo(1000L + Anime.ID_ALLOCATION_SIZE * 2);
+    }
+}
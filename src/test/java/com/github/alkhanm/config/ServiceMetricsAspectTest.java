@@ -0,0 +1,97 @@
+package com.github.alkhanm.config;
+
+import com.github.alkhanm.repository.AnimeReactiveRepository;
+import com.github.alkhanm.repository.MyUserRepository;
+import com.github.alkhanm.service.AnimeReactiveService;
+import com.github.alkhanm.service.MyUserDetailsService;
+import com.github.alkhanm.util.AnimeCreator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testes para: ServiceMetricsAspect")
+class ServiceMetricsAspectTest {
+
+    @TestConfiguration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import({ServiceMetricsAspect.class, AnimeReactiveService.class, MyUserDetailsService.class})
+    static class Config {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private AnimeReactiveService reactiveService;
+
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
+    @MockBean
+    private AnimeReactiveRepository reactiveRepository;
+
+    @MockBean
+    private MyUserRepository userRepository;
+
+    @Test
+    @DisplayName("Registra o outcome e a exceção quando o método do service falha")
+    void time_RecordsErrorOutcome_WhenMethodThrowsException() {
+        BDDMockito.when(userRepository.findByUsername(ArgumentMatchers.anyString()))
+                .thenReturn(Collections.emptyList());
+
+        Assertions.assertThatExceptionOfType(UsernameNotFoundException.class)
+                .isThrownBy(() -> userDetailsService.loadUserByUsername("alkham"));
+
+        Assertions.assertThat(registry.get(ServiceMetricsAspect.METRIC_NAME)
+                        .tags("class", "MyUserDetailsService", "method", "loadUserByUsername",
+                                "outcome", "ERROR", "exception", "UsernameNotFoundException")
+                        .timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Mede os métodos reativos apenas quando o resultado é consumido")
+    void time_RecordsReactiveMethod_WhenPublisherCompletes() {
+        BDDMockito.when(reactiveRepository.findPage(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(AnimeCreator.createValidAnime()));
+        BDDMockito.when(reactiveRepository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Mono.empty());
+
+        Flux<?> page = reactiveService.listPage(0, 20);
+        Assertions.assertThat(registry.find(ServiceMetricsAspect.METRIC_NAME).tags("method", "listPage").timer())
+                .isNull();
+
+        page.blockLast();
+        Assertions.assertThatThrownBy(() -> reactiveService.findByIdOrThrowException(1L).block());
+
+        Assertions.assertThat(registry.get(ServiceMetricsAspect.METRIC_NAME)
+                        .tags("method", "listPage", "outcome", "SUCCESS").timer().count())
+                .isEqualTo(1);
+        Assertions.assertThat(registry.get(ServiceMetricsAspect.METRIC_NAME)
+                        .tags("method", "findByIdOrThrowException", "outcome", "ERROR", "exception", "BadRequestException")
+                        .timer().count())
+                .isEqualTo(1);
+    }
+}
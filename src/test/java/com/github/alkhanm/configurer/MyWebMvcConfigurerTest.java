@@ -0,0 +1,164 @@
+package com.github.alkhanm.configurer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.alkhanm.controller.AnimeAllResponseCache;
+import com.github.alkhanm.controller.AnimeController;
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.service.AnimeService;
+import com.github.alkhanm.service.AnimeWriteBehind;
+import com.github.alkhanm.util.AnimeCreator;
+import com.github.alkhanm.wrapper.PageableResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DisplayName("Testes para: formatos das respostas do AnimeController")
+class MyWebMvcConfigurerTest {
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        AnimeService service = Mockito.mock(AnimeService.class);
+        BDDMockito.when(service.findByIdOrThrowException(ArgumentMatchers.anyLong()))
+                .thenReturn(AnimeCreator.createValidAnime());
+        BDDMockito.when(service.getAllVersion())
+                .thenReturn("v1");
+        BDDMockito.when(service.listAll(ArgumentMatchers.any()))
+                .thenReturn(new PageImpl<>(List.of(AnimeCreator.createValidAnime()), PageRequest.of(0, 5), 1));
+        BDDMockito.when(service.listAll())
+                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+
+        //O builder do Spring Boot é um bean prototype, cada chamada retorna um novo
+        ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder = Mockito.mock(ObjectProvider.class);
+        BDDMockito.when(objectMapperBuilder.getObject())
+                .thenAnswer(invocation -> new Jackson2ObjectMapperBuilder());
+        MyWebMvcConfigurer configurer = new MyWebMvcConfigurer(objectMapperBuilder);
+
+        //A mesma ordem usada pelo Spring: os conversores padrão (bytes, JSON) e, depois, os adicionados pelo configurer
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(new ByteArrayHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter()));
+        configurer.extendMessageConverters(converters);
+        List<HandlerMethodArgumentResolver> resolvers = new ArrayList<>();
+        configurer.addArgumentResolvers(resolvers);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new AnimeController(service, new ObjectMapper(),
+                        new AnimeAllResponseCache(new ObjectMapper()), Mockito.mock(AnimeWriteBehind.class)))
+                .setMessageConverters(converters.toArray(new HttpMessageConverter[0]))
+                .setCustomArgumentResolvers(resolvers.toArray(new HandlerMethodArgumentResolver[0]))
+                .addMappedInterceptors(new String[]{"/animes", "/animes/**"}, new VaryAcceptInterceptor())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Responde em JSON quando qualquer formato é aceito")
+    void findById_ReturnsJson_WhenAnyFormatIsAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/animes/1").header(HttpHeaders.ACCEPT, "*/*"))
+                .andReturn();
+
+        Assertions.assertThat(result.getResponse().getContentType())
+                .isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    @Test
+    @DisplayName("Responde em CBOR quando o cliente aceita application/cbor")
+    void findById_ReturnsCbor_WhenCborIsAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/animes/1").accept(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        Assertions.assertThat(result.getResponse().getContentType())
+                .isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        Assertions.assertThat(new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), Anime.class))
+                .isEqualTo(AnimeCreator.createValidAnime());
+    }
+
+    @Test
+    @DisplayName("Usa um ETag por formato: o ETag do JSON não gera 304 para uma requisição em CBOR")
+    void findById_UsesETagPerFormat_WhenFormatsDiffer() throws Exception {
+        MvcResult json = mockMvc.perform(MockMvcRequestBuilders.get("/animes/1")).andReturn();
+        String jsonETag = json.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult cbor = mockMvc.perform(MockMvcRequestBuilders.get("/animes/1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andReturn();
+        MvcResult notModified = mockMvc.perform(MockMvcRequestBuilders.get("/animes/1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cbor.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andReturn();
+
+        Assertions.assertThat(cbor.getResponse().getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+        Assertions.assertThat(cbor.getResponse().getHeader(HttpHeaders.ETAG))
+                .isEqualTo(jsonETag.replaceFirst("\"$", "-cbor\""));
+        Assertions.assertThat(notModified.getResponse().getStatus())
+                .isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        Assertions.assertThat(notModified.getResponse().getHeaders(HttpHeaders.VARY))
+                .containsExactly(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    @DisplayName("Lista todos os animes com o corpo já serializado em JSON, ou em CBOR quando o cliente pede CBOR")
+    void listAll_ChoosesHandlerByAcceptedFormat_WhenSuccessful() throws Exception {
+        //Accept de um navegador: nenhum dos tipos preferidos é produzido, vale o */*
+        MvcResult json = mockMvc.perform(MockMvcRequestBuilders.get("/animes/all")
+                        .header(HttpHeaders.ACCEPT, "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"))
+                .andReturn();
+        MvcResult cbor = mockMvc.perform(MockMvcRequestBuilders.get("/animes/all").accept(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        Assertions.assertThat(json.getResponse().getContentType())
+                .isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        //Apenas o corpo guardado pelo AnimeAllResponseCache varia também conforme o Accept-Encoding
+        Assertions.assertThat(json.getResponse().getHeaders(HttpHeaders.VARY))
+                .containsExactlyInAnyOrder(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        Assertions.assertThat(cbor.getResponse().getHeaders(HttpHeaders.VARY))
+                .containsExactly(HttpHeaders.ACCEPT);
+        Assertions.assertThat(cbor.getResponse().getHeader(HttpHeaders.ETAG))
+                .isNotEqualTo(json.getResponse().getHeader(HttpHeaders.ETAG));
+        Assertions.assertThat(new ObjectMapper().readValue(json.getResponse().getContentAsByteArray(), Anime[].class))
+                .containsExactly(AnimeCreator.createValidAnime());
+        Assertions.assertThat(cbor.getResponse().getContentType())
+                .isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        Assertions.assertThat(new CBORMapper().readValue(cbor.getResponse().getContentAsByteArray(), Anime[].class))
+                .containsExactly(AnimeCreator.createValidAnime());
+    }
+
+    @Test
+    @DisplayName("Responde em Smile uma página que o cliente lê como PageableResponse")
+    void list_ReturnsSmilePage_WhenSmileIsAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/animes").header(HttpHeaders.ACCEPT, "application/x-jackson-smile"))
+                .andReturn();
+
+        PageableResponse<Anime> page = new SmileMapper().readValue(result.getResponse().getContentAsByteArray(),
+                new TypeReference<PageableResponse<Anime>>() {});
+
+        Assertions.assertThat(page.getContent())
+                .containsExactly(AnimeCreator.createValidAnime());
+        Assertions.assertThat(page.getTotalElements())
+                .isEqualTo(1);
+    }
+}
@@ -1,9 +1,14 @@
 package com.github.alkhanm.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.exception.PreconditionFailedException;
 import com.github.alkhanm.request.AnimePostRequestBody;
 import com.github.alkhanm.request.AnimePutRequestBody;
+import com.github.alkhanm.response.AnimeIngestResponse;
+import com.github.alkhanm.response.AnimeIngestStatus;
 import com.github.alkhanm.service.AnimeService;
+import com.github.alkhanm.service.AnimeWriteBehind;
 import com.github.alkhanm.util.AnimeCreator;
 import com.github.alkhanm.util.AnimePostRequestBodyCreator;
 import com.github.alkhanm.util.AnimePutRequestBodyCreator;
@@ -16,13 +21,25 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 @ExtendWith(SpringExtension.class)
 class AnimeControllerTest {
@@ -33,12 +50,24 @@ class AnimeControllerTest {
     @Mock //Injeta as classes utilizadas pela classe testada
     private AnimeService service;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private AnimeWriteBehind writeBehind;
+
+    @Spy
+    private AnimeAllResponseCache allResponseCache = new AnimeAllResponseCache(new ObjectMapper());
+
     @BeforeEach
         //Executa antes de qualquer operação
     void setUp() {
         PageImpl<Anime> animePage = new PageImpl<>(List.of(AnimeCreator.createValidAnime()));
 
         // Quando o método listAll for chamado com algum argumento, retornará o objeto "animePage"
+        BDDMockito.when(service.getAllVersion())
+                .thenReturn("v1");
+
         BDDMockito.when(service.listAll(ArgumentMatchers.any()))
                 .thenReturn(animePage);
 
@@ -46,6 +75,13 @@ class AnimeControllerTest {
         BDDMockito.when(service.listAll())
                 .thenReturn(List.of(AnimeCreator.createValidAnime()));
 
+        BDDMockito.doAnswer(invocation -> {
+                    Consumer<Anime> consumer = invocation.getArgument(0);
+                    consumer.accept(AnimeCreator.createValidAnime());
+                    consumer.accept(AnimeCreator.createValidUpdatedAnime());
+                    return null;
+                }).when(service).exportAll(ArgumentMatchers.any());
+
         BDDMockito.when(service.findByIdOrThrowException(ArgumentMatchers.anyLong()))
                 .thenReturn(AnimeCreator.createValidAnime());
 
@@ -56,7 +92,7 @@ class AnimeControllerTest {
                 .thenReturn(AnimeCreator.createValidAnime());
 
         BDDMockito.doNothing().when(service)
-                .replace(ArgumentMatchers.any(AnimePutRequestBody.class));
+                .replace(ArgumentMatchers.any(AnimePutRequestBody.class), ArgumentMatchers.any());
 
         BDDMockito.doNothing().when(service)
                 .delete(ArgumentMatchers.anyLong());
@@ -67,7 +103,7 @@ class AnimeControllerTest {
     void listAllPageable_ReturnsListOfAnimesInsidePageObject_WhenSuccessful() {
         String expectedName = AnimeCreator.createValidAnime().getName();
 
-        Page<Anime> animePage = controller.list(null).getBody();
+        Page<Anime> animePage = controller.list(null, new ServletWebRequest(new MockHttpServletRequest())).getBody();
 
         Assertions.assertThat(animePage)
                 .isNotNull()
@@ -83,7 +119,7 @@ class AnimeControllerTest {
     void listAll_ReturnsListOfAnimes_WhenSuccessful() {
         String expectedName = AnimeCreator.createValidAnime().getName();
 
-        List<Anime> animes = controller.list().getBody();
+        List<Anime> animes = controller.list(new ServletWebRequest(new MockHttpServletRequest())).getBody();
 
         Assertions.assertThat(animes)
                 .isNotNull()
@@ -93,12 +129,119 @@ class AnimeControllerTest {
                 .isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("Responde 304 à página que não mudou, e muda o ETag quando um anime da página é alterado")
+    void list_ReturnsNotModified_WhenPageContentIsUnchanged() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.list(null, new ServletWebRequest(new MockHttpServletRequest("GET", "/animes"), response));
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest conditionalRequest = new MockHttpServletRequest("GET", "/animes");
+        conditionalRequest.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        Assertions.assertThat(controller.list(null, new ServletWebRequest(conditionalRequest, new MockHttpServletResponse())))
+                .isNull();
+
+        BDDMockito.when(service.listAll(ArgumentMatchers.any()))
+                .thenReturn(new PageImpl<>(List.of(Anime.builder().id(1L).name("One Piece").version(1L).build())));
+        MockHttpServletRequest changedRequest = new MockHttpServletRequest("GET", "/animes");
+        changedRequest.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        Assertions.assertThat(controller.list(null, new ServletWebRequest(changedRequest, new MockHttpServletResponse())))
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("Responde 304 sem buscar os animes quando a lista não mudou")
+    void listAll_ReturnsNotModified_WhenETagMatches() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/animes/all");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.list(new ServletWebRequest(request, response));
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest conditionalRequest = new MockHttpServletRequest("GET", "/animes/all");
+        conditionalRequest.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        MockHttpServletResponse conditionalResponse = new MockHttpServletResponse();
+
+        Assertions.assertThat(controller.list(new ServletWebRequest(conditionalRequest, conditionalResponse)))
+                .isNull();
+
+        Assertions.assertThat(conditionalResponse.getStatus())
+                .isEqualTo(HttpStatus.NOT_MODIFIED.value());
+
+        BDDMockito.verify(service, BDDMockito.times(1)).listAll();
+    }
+
+    @Test
+    @DisplayName("Serializa todos os animes uma única vez enquanto a tabela não muda, com e sem gzip")
+    void listJson_ReusesRenderedBody_WhenCollectionVersionIsUnchanged() throws IOException {
+        byte[] identity = controller.listJson(webRequest(), null).getBody();
+        ResponseEntity<byte[]> compressed = controller.listJson(webRequest(), "deflate, gzip;q=0.8");
+
+        Assertions.assertThat(objectMapper.readValue(identity, Anime[].class))
+                .containsExactly(AnimeCreator.createValidAnime());
+        Assertions.assertThat(compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+                .isEqualTo("gzip");
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed.getBody()))) {
+            Assertions.assertThat(inputStream.readAllBytes())
+                    .isEqualTo(identity);
+        }
+        BDDMockito.verify(service, BDDMockito.times(1)).listAll();
+
+        BDDMockito.when(service.getAllVersion())
+                .thenReturn("v2");
+        controller.listJson(webRequest(), "gzip;q=0");
+
+        BDDMockito.verify(service, BDDMockito.times(2)).listAll();
+    }
+
+    @Test
+    @DisplayName("Usa um ETag diferente para o corpo com gzip e responde 304 apenas à mesma codificação")
+    void listJson_UsesSeparateETagForGzip_WhenClientAcceptsGzip() {
+        MockHttpServletResponse identityResponse = new MockHttpServletResponse();
+        controller.listJson(new ServletWebRequest(new MockHttpServletRequest("GET", "/animes/all"), identityResponse), null);
+        MockHttpServletResponse gzipResponse = new MockHttpServletResponse();
+        controller.listJson(new ServletWebRequest(new MockHttpServletRequest("GET", "/animes/all"), gzipResponse), "gzip");
+
+        Assertions.assertThat(identityResponse.getHeader(HttpHeaders.ETAG))
+                .isEqualTo("\"all-v1\"");
+        Assertions.assertThat(gzipResponse.getHeader(HttpHeaders.ETAG))
+                .isEqualTo("\"all-v1-gz\"");
+
+        MockHttpServletRequest identityRequest = new MockHttpServletRequest("GET", "/animes/all");
+        identityRequest.addHeader(HttpHeaders.IF_NONE_MATCH, gzipResponse.getHeader(HttpHeaders.ETAG));
+        Assertions.assertThat(controller.listJson(new ServletWebRequest(identityRequest, new MockHttpServletResponse()), null))
+                .isNotNull();
+
+        MockHttpServletRequest gzipRequest = new MockHttpServletRequest("GET", "/animes/all");
+        gzipRequest.addHeader(HttpHeaders.IF_NONE_MATCH, gzipResponse.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        Assertions.assertThat(controller.listJson(new ServletWebRequest(gzipRequest, notModified), "gzip"))
+                .isNull();
+        Assertions.assertThat(notModified.getStatus())
+                .isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    @DisplayName("Escreve todos os animes, um por linha")
+    void stream_WritesOneAnimePerLine_WhenSuccessful() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        controller.stream().getBody().writeTo(outputStream);
+
+        String[] lines = outputStream.toString().split("\n");
+
+        Assertions.assertThat(lines)
+                .hasSize(2);
+
+        Assertions.assertThat(objectMapper.readValue(lines[1], Anime.class))
+                .isEqualTo(AnimeCreator.createValidUpdatedAnime());
+    }
+
     @Test
     @DisplayName("Retorna um anime que possua um certo id")
     void findById_ReturnsAnAnime_WhenSuccessful() {
         long expectedId = AnimeCreator.createValidAnime().getId();
 
-        Anime anime = controller.findById(1).getBody();
+        Anime anime = controller.findById(1, null).getBody();
 
         Assertions.assertThat(anime)
                 .isNotNull();
@@ -108,6 +251,15 @@ class AnimeControllerTest {
                 .isEqualTo(expectedId);
     }
 
+    @Test
+    @DisplayName("Retorna o ETag com o id e a versão do anime")
+    void findById_ReturnsETag_WhenSuccessful() {
+        Anime anime = AnimeCreator.createValidAnime();
+
+        Assertions.assertThat(controller.findById(1, null).getHeaders().getETag())
+                .isEqualTo("\"" + anime.getId() + "-" + anime.getVersion() + "\"");
+    }
+
     @Test
     @DisplayName("Retorna uma lista de animes que possuem um certo nome")
     void findByName_ReturnsListOfAnime_WhenSuccessful() {
@@ -148,18 +300,101 @@ class AnimeControllerTest {
                 .isEqualTo(AnimeCreator.createValidAnime());
     }
 
+    @Test
+    @DisplayName("Enfileira o anime e responde 202 com o id de acompanhamento quando a gravação assíncrona está ativa")
+    void saveAsync_ReturnsAccepted_WhenWriteBehindIsEnabled() {
+        AnimeIngestResponse pending = AnimeIngestResponse.builder()
+                .trackingId(UUID.randomUUID())
+                .status(AnimeIngestStatus.PENDING)
+                .build();
+        BDDMockito.when(writeBehind.isEnabled()).thenReturn(true);
+        BDDMockito.when(writeBehind.submit(ArgumentMatchers.any(AnimePostRequestBody.class))).thenReturn(pending);
+
+        ResponseEntity<?> response = controller.saveAsync(AnimePostRequestBodyCreator.create(), prefer("respond-async, wait=10"));
+
+        Assertions.assertThat(response.getStatusCode())
+                .isEqualTo(HttpStatus.ACCEPTED);
+        Assertions.assertThat(response.getHeaders().getLocation())
+                .hasToString("/animes/ingest/" + pending.getTrackingId());
+        Assertions.assertThat(response.getBody())
+                .isEqualTo(pending);
+        BDDMockito.verify(service, BDDMockito.never()).save(ArgumentMatchers.any(AnimePostRequestBody.class));
+    }
+
+    @Test
+    @DisplayName("Encontra respond-async entre as outras preferências, em qualquer posição e em mais de um cabeçalho")
+    void saveAsync_ReturnsAccepted_WhenRespondAsyncIsAmongOtherPreferences() {
+        BDDMockito.when(writeBehind.isEnabled()).thenReturn(true);
+        BDDMockito.when(writeBehind.submit(ArgumentMatchers.any(AnimePostRequestBody.class)))
+                .thenReturn(AnimeIngestResponse.builder().trackingId(UUID.randomUUID()).status(AnimeIngestStatus.PENDING).build());
+
+        Assertions.assertThat(controller.saveAsync(AnimePostRequestBodyCreator.create(),
+                        prefer("return=minimal, Respond-Async")).getStatusCode())
+                .isEqualTo(HttpStatus.ACCEPTED);
+        Assertions.assertThat(controller.saveAsync(AnimePostRequestBodyCreator.create(),
+                        prefer("return=minimal", "respond-async; foo=bar")).getStatusCode())
+                .isEqualTo(HttpStatus.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("Salva o anime quando o cabeçalho Prefer não pede respond-async")
+    void saveAsync_SavesAnime_WhenRespondAsyncIsNotPreferred() {
+        BDDMockito.when(writeBehind.isEnabled()).thenReturn(true);
+
+        Assertions.assertThat(controller.saveAsync(AnimePostRequestBodyCreator.create(),
+                        prefer("return=minimal, handling=\"respond-async, lenient\"")).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(controller.saveAsync(AnimePostRequestBodyCreator.create(),
+                        prefer("respond-asynchronously")).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+        BDDMockito.verify(writeBehind, BDDMockito.never()).submit(ArgumentMatchers.any(AnimePostRequestBody.class));
+    }
+
+    @Test
+    @DisplayName("Ignora a preferência e salva o anime quando a gravação assíncrona está desativada")
+    void saveAsync_SavesAnime_WhenWriteBehindIsDisabled() {
+        ResponseEntity<?> response = controller.saveAsync(AnimePostRequestBodyCreator.create(), prefer("respond-async"));
+
+        Assertions.assertThat(response.getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(response.getBody())
+                .isEqualTo(AnimeCreator.createValidAnime());
+    }
+
     @Test
     @DisplayName("Substitui um anime por outro")
     void replace_UpdateAnime_WhenSuccessful() {
         AnimePutRequestBody animePutRequestBody = AnimePutRequestBodyCreator.create();
 
-        Assertions.assertThatCode(() -> controller.replace(animePutRequestBody))
+        Assertions.assertThatCode(() -> controller.replace(animePutRequestBody, null))
                 .doesNotThrowAnyException();
 
-        Assertions.assertThat(controller.replace(animePutRequestBody).getStatusCode())
+        Assertions.assertThat(controller.replace(animePutRequestBody, null).getStatusCode())
                 .isEqualTo(HttpStatus.NO_CONTENT);
     }
 
+    @Test
+    @DisplayName("Envia ao service a versão informada no If-Match")
+    void replace_PassesExpectedVersion_WhenIfMatchIsPresent() {
+        AnimePutRequestBody animePutRequestBody = AnimePutRequestBodyCreator.create();
+
+        controller.replace(animePutRequestBody, "\"" + animePutRequestBody.getId() + "-3\"");
+
+        BDDMockito.verify(service).replace(animePutRequestBody, 3L);
+    }
+
+    @Test
+    @DisplayName("Compara apenas a versão do If-Match, o ETag de qualquer formato é aceito")
+    void replace_IgnoresRepresentationSuffix_WhenIfMatchHasOne() {
+        AnimePutRequestBody animePutRequestBody = AnimePutRequestBodyCreator.create();
+
+        controller.replace(animePutRequestBody, "\"" + animePutRequestBody.getId() + "-3-cbor\"");
+
+        BDDMockito.verify(service).replace(animePutRequestBody, 3L);
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> controller.replace(animePutRequestBody, "\"" + animePutRequestBody.getId() + "-3-xml\""));
+    }
+
     @Test
     @DisplayName("Remove um anime")
     void delete_RemovesAnime_WhenSuccessful() {
@@ -170,4 +405,13 @@ class AnimeControllerTest {
                 .isEqualTo(HttpStatus.NO_CONTENT);
     }
 
-}
\ No newline at end of file
+    private static HttpHeaders prefer(String... values) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String value : values) headers.add("Prefer", value);
+        return headers;
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+}
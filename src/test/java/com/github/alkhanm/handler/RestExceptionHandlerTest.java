@@ -0,0 +1,69 @@
+package com.github.alkhanm.handler;
+
+import com.github.alkhanm.exception.BadRequestException;
+import com.github.alkhanm.exception.BadRequestExceptionDetails;
+import com.github.alkhanm.exception.ServiceUnavailableException;
+import com.github.alkhanm.exception.ServiceUnavailableExceptionDetails;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+
+@DisplayName("Testes para: RestExceptionHandler")
+class RestExceptionHandlerTest {
+    private final RestExceptionHandler handler = new RestExceptionHandler();
+
+    @Test
+    @DisplayName("Lança a BadRequestException sem preencher o stack trace")
+    void badRequestException_HasNoStackTrace() {
+        Assertions.assertThat(new BadRequestException("Anime not found").getStackTrace())
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reaproveita o corpo de erro quando a mesma exceção se repete")
+    void handlerBadRequestException_ReusesDetails_WhenMessageRepeats() {
+        BadRequestExceptionDetails first = handler.handlerBadRequestException(new BadRequestException("Anime not found")).getBody();
+        BadRequestExceptionDetails second = handler.handlerBadRequestException(new BadRequestException("Anime not found")).getBody();
+        BadRequestExceptionDetails other = handler.handlerBadRequestException(new BadRequestException("Invalid cursor")).getBody();
+
+        Assertions.assertThat(second.getDetails())
+                .isEqualTo("Anime not found");
+        //O corpo é renovado quando o segundo muda entre as duas chamadas
+        if (first.getTimestamp().equals(second.getTimestamp())) Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(other.getDetails())
+                .isEqualTo("Invalid cursor");
+    }
+
+    @Test
+    @DisplayName("Monta o corpo de erro quando a exceção do Spring não possui causa")
+    void handleException_ReturnsDetails_WhenExceptionHasNoCause() throws Exception {
+        ResponseEntity<Object> response = handler.handleException(new HttpRequestMethodNotSupportedException("PATCH"),
+                new ServletWebRequest(new MockHttpServletRequest(HttpMethod.PATCH.name(), "/animes")));
+
+        Assertions.assertThat(response.getStatusCode())
+                .isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+        Assertions.assertThat(((BadRequestExceptionDetails) response.getBody()).getTitle())
+                .isEqualTo(HttpStatus.METHOD_NOT_ALLOWED.getReasonPhrase());
+    }
+
+    @Test
+    @DisplayName("Responde 503 com o Retry-After quando a fila de gravação está cheia")
+    void handlerServiceUnavailableException_SetsRetryAfter_WhenQueueIsFull() {
+        ResponseEntity<ServiceUnavailableExceptionDetails> response = handler.handlerServiceUnavailableException(
+                new ServiceUnavailableException("The write queue is full, try again later", Duration.ofSeconds(2)));
+
+        Assertions.assertThat(response.getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        Assertions.assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))
+                .isEqualTo("2");
+    }
+}
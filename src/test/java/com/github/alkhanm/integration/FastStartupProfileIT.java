@@ -0,0 +1,39 @@
+package com.github.alkhanm.integration;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+//Perfil usado pelo docker-compose.yml
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+@ActiveProfiles("fast-startup")
+@DisplayName("Testes para: perfil fast-startup")
+class FastStartupProfileIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    @DisplayName("Mantém a documentação OpenAPI, criada na primeira requisição")
+    void apiDocs_ReturnsOpenApiDocument_WhenProfileIsActive() {
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/v3/api-docs", String.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(response.getBody()).contains("\"openapi\"", "/animes");
+    }
+
+    @Test
+    @DisplayName("Mantém o Swagger UI")
+    void swaggerUi_IsAvailable_WhenProfileIsActive() {
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/swagger-ui/index.html", String.class);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
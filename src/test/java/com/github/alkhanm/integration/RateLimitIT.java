@@ -0,0 +1,52 @@
+package com.github.alkhanm.integration;
+
+import com.github.alkhanm.request.LoginRequestBody;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "anime.rate-limit.limits[0].path=/auth/**",
+        "anime.rate-limit.limits[0].capacity=2",
+        "anime.rate-limit.limits[1].path=/animes/**",
+        "anime.rate-limit.limits[1].capacity=2"
+})
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Testes para: limite de requisições")
+class RateLimitIT {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    @DisplayName("Limita as tentativas de senha pelo HTTP Basic, antes da autenticação")
+    void basicAuthentication_Returns429_WhenPasswordGuessesExceedLimit() {
+        TestRestTemplate guessing = testRestTemplate.withBasicAuth("Alkham", "wrong");
+
+        Assertions.assertThat(guessing.getForEntity("/animes/1", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        Assertions.assertThat(guessing.getForEntity("/animes/1", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        Assertions.assertThat(guessing.getForEntity("/animes/1", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    @DisplayName("Limita as tentativas de login pelo IP")
+    void login_Returns429_WhenLoginAttemptsExceedLimit() {
+        LoginRequestBody login = new LoginRequestBody("Alkham", "wrong");
+
+        Assertions.assertThat(testRestTemplate.postForEntity("/auth/login", login, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        Assertions.assertThat(testRestTemplate.postForEntity("/auth/login", login, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        Assertions.assertThat(testRestTemplate.postForEntity("/auth/login", login, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
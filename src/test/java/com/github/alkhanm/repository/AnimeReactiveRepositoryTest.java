@@ -0,0 +1,69 @@
+package com.github.alkhanm.repository;
+
+import com.github.alkhanm.domain.Anime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+//Usa um banco de dados H2 em memória acessado pelo driver R2DBC
+@DataR2dbcTest(properties = "spring.r2dbc.url=r2dbc:h2:mem:///reactive-test")
+@Import(AnimeReactiveRepository.class)
+@DisplayName("Testes para: AnimeReactiveRepository")
+class AnimeReactiveRepositoryTest {
+    @Autowired
+    private AnimeReactiveRepository repository;
+
+    @Autowired
+    private DatabaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        Flux.just("drop table if exists anime",
+                "create table anime (id bigint primary key, name varchar(255), search_name varchar(255), version bigint)",
+                "insert into anime (id, name, search_name, version) values (1, 'Bleach', 'bleach', 0)",
+                "insert into anime (id, name, search_name, version) values (2, 'Naruto', 'naruto', 3)",
+                "insert into anime (id, name, search_name, version) values (3, 'One Piece', 'one piece', 1)")
+                .concatMap(sql -> client.sql(sql).then())
+                .blockLast();
+    }
+
+    @Test
+    @DisplayName("Retorna os animes da página, ordenados pelo id")
+    void findPage_ReturnsAnimesOfPage_WhenSuccessful() {
+        StepVerifier.create(repository.findPage(1, 2))
+                .expectNext(Anime.builder().id(2L).name("Naruto").version(3L).build())
+                .expectNext(Anime.builder().id(3L).name("One Piece").version(1L).build())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Entrega apenas os animes solicitados pelo assinante")
+    void findAll_RespectsBackpressure_WhenSubscriberRequestsLess() {
+        StepVerifier.create(repository.findAll(), 1)
+                .expectNextMatches(anime -> anime.getId() == 1L)
+                .thenRequest(2)
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Retorna um Mono vazio quando o anime não existe")
+    void findById_ReturnsEmpty_WhenAnimeIsNotFound() {
+        StepVerifier.create(repository.findById(10L))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Retorna os animes que possuem um certo nome")
+    void findByName_ReturnsAnimes_WhenSuccessful() {
+        StepVerifier.create(repository.findByName("Bleach"))
+                .expectNextMatches(anime -> anime.getId() == 1L && anime.getVersion() == 0L)
+                .verifyComplete();
+    }
+}
@@ -8,10 +8,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import javax.validation.ConstraintViolationException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @DataJpaTest
 @Log4j2
@@ -20,6 +24,9 @@ class AnimeRepositoryTest {
     @Autowired
     private AnimeRepository repository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     @DisplayName("Persiste o anime quando a operação for bem-sucedida")
     void create_PersistAnime_WhenSuccessful() {
@@ -37,14 +44,35 @@ class AnimeRepositoryTest {
                 .isEqualTo(animeToBeSaved.getName());
     }
 
+    @Test
+    @DisplayName("Altera o nome e incrementa a versão apenas quando a versão informada é a atual")
+    void updateNameIfVersion_UpdatesOnlyCurrentVersion_WhenSuccessful() {
+        Anime animeSaved = this.repository.saveAndFlush(AnimeCreator.createAnimeToBeSaved());
+        entityManager.clear();
+
+        Assertions.assertThat(this.repository.updateNameIfVersion(animeSaved.getId(), "Naruto", "naruto", animeSaved.getVersion() + 1))
+                .isZero();
+        Assertions.assertThat(this.repository.updateNameIfVersion(animeSaved.getId(), "Naruto", "naruto", animeSaved.getVersion()))
+                .isOne();
+        Assertions.assertThat(this.repository.updateName(animeSaved.getId() + 1, "Naruto", "naruto"))
+                .isZero();
+
+        Anime animeUpdated = this.repository.findById(animeSaved.getId()).orElseThrow();
+        Assertions.assertThat(animeUpdated.getName()).isEqualTo("Naruto");
+        Assertions.assertThat(animeUpdated.getVersion()).isEqualTo(animeSaved.getVersion() + 1);
+        Assertions.assertThat(this.repository.findBySearchNameStartingWith("naru", PageRequest.of(0, 10)))
+                .containsExactly(animeUpdated);
+    }
+
     @Test
     @DisplayName("Lança uma exceção caso o anime esteja com nome vazio ao tentar salvar")
     void create_throw_ConstraintValidationException_WhenNameIsEmpty() {
         Anime anime = new Anime();
         /* Assertions.assertThatThrownBy(() -> this.repository.save(anime))
          *    .isInstanceOf(ConstraintViolationException.class); */
+        //Com ids gerados por sequência o INSERT (e a validação) só acontece no flush
         Assertions.assertThatExceptionOfType(ConstraintViolationException.class)
-                .isThrownBy(() -> this.repository.save(anime))
+                .isThrownBy(() -> this.repository.saveAndFlush(anime))
                 .withMessageContaining("The anime name cannot be empty");
     }
 
@@ -105,4 +133,50 @@ class AnimeRepositoryTest {
         Assertions.assertThat(animes)
                 .isEmpty();
     }
+
+    @Test
+    @DisplayName("Percorre todos os animes através de um cursor")
+    void read_streamAll_ReturnsStreamOfAnimes_WhenSuccessful() {
+        Anime animeSaved = this.repository.save(AnimeCreator.createAnimeToBeSaved());
+
+        List<Anime> animes;
+        try (Stream<Anime> stream = this.repository.streamAll()) {
+            animes = stream.collect(Collectors.toList());
+        }
+
+        Assertions.assertThat(animes)
+                .isNotEmpty()
+                .contains(animeSaved);
+    }
+
+    @Test
+    @DisplayName("Retorna os animes seguintes ao cursor, ordenados por nome e id")
+    void read_findNextOrderedByName_ReturnsAnimesAfterCursor_WhenSuccessful() {
+        Anime bleach = this.repository.save(Anime.builder().name("Bleach").build());
+        Anime naruto = this.repository.save(Anime.builder().name("Naruto").build());
+        Anime narutoShippuden = this.repository.save(Anime.builder().name("Naruto").build());
+        this.repository.save(Anime.builder().name("Overlord").build());
+
+        List<Anime> animes = this.repository.findNextOrderedByName(naruto.getName(), naruto.getId(), PageRequest.of(0, 1));
+
+        Assertions.assertThat(animes)
+                .containsExactly(narutoShippuden)
+                .doesNotContain(bleach);
+    }
+
+    @Test
+    @DisplayName("Busca animes pelo início do nome sem diferenciar maiúsculas de minúsculas")
+    void read_findBySearchNameStartingWith_ReturnsAnimes_WhenPrefixMatchesIgnoringCase() {
+        Anime naruto = this.repository.saveAndFlush(Anime.builder().name("Naruto").build());
+        this.repository.saveAndFlush(Anime.builder().name("Boruto").build());
+
+        List<Anime> byPrefix = this.repository.findBySearchNameStartingWith(Anime.normalize("NAR"), PageRequest.of(0, 10)).getContent();
+        List<Anime> byFragment = this.repository.findBySearchNameContaining(Anime.normalize("UTO"), PageRequest.of(0, 10)).getContent();
+
+        Assertions.assertThat(byPrefix)
+                .containsExactly(naruto);
+
+        Assertions.assertThat(byFragment)
+                .hasSize(2);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.github.alkhanm.security;
+
+import com.github.alkhanm.config.AuthenticationCacheProperties;
+import com.github.alkhanm.domain.MyUser;
+import com.github.alkhanm.service.MyUserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+@DisplayName("Testes para: CachingAuthenticationProvider")
+class CachingAuthenticationProviderTest {
+    private static final MyUser USER = MyUser.builder()
+            .id(1L)
+            .name("admin supremo")
+            .username("Alkham")
+            .password("{noop}test")
+            .authorities("ROLE_USER,ROLE_ADMIN")
+            .build();
+
+    private AuthenticationProvider delegate;
+    private AuthenticationCache cache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(AuthenticationProvider.class);
+        cache = new AuthenticationCache(new AuthenticationCacheProperties(), new SimpleMeterRegistry());
+        provider = new CachingAuthenticationProvider(delegate, cache);
+
+        //Simula o DaoAuthenticationProvider: apenas a senha "test" é válida
+        BDDMockito.when(delegate.authenticate(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            Authentication authentication = invocation.getArgument(0);
+            if (!"test".equals(authentication.getCredentials())) throw new BadCredentialsException("Bad credentials");
+            return new UsernamePasswordAuthenticationToken(USER, null, USER.getAuthorities());
+        });
+    }
+
+    @Test
+    @DisplayName("Verifica a senha apenas uma vez quando o mesmo usuário se autentica várias vezes")
+    void authenticate_DelegatesOnce_WhenCredentialsAreCached() {
+        provider.authenticate(token("test"));
+        Authentication authentication = provider.authenticate(token("test"));
+
+        Assertions.assertThat(authentication.getPrincipal())
+                .isEqualTo(USER);
+        Assertions.assertThat(authentication.getAuthorities())
+                .hasSize(2);
+
+        Mockito.verify(delegate, Mockito.times(1)).authenticate(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("Não reaproveita a autenticação quando a senha é diferente")
+    void authenticate_ThrowsBadCredentialsException_WhenPasswordDoesNotMatchCachedOne() {
+        provider.authenticate(token("test"));
+
+        Assertions.assertThatExceptionOfType(BadCredentialsException.class)
+                .isThrownBy(() -> provider.authenticate(token("wrong")));
+    }
+
+    @Test
+    @DisplayName("Verifica a senha novamente após o usuário ser alterado")
+    void authenticate_DelegatesAgain_WhenUserIsInvalidated() {
+        provider.authenticate(token("test"));
+        cache.onUserChanged(new MyUserChangedEvent(USER.getId(), "another name"));
+        provider.authenticate(token("test"));
+
+        Mockito.verify(delegate, Mockito.times(2)).authenticate(ArgumentMatchers.any());
+    }
+
+    private UsernamePasswordAuthenticationToken token(String password) {
+        return new UsernamePasswordAuthenticationToken(USER.getUsername(), password);
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.alkhanm.security;
+
+import com.github.alkhanm.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("Testes para: RateLimitFilter")
+class RateLimitFilterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry registry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setPath("/animes/all/**");
+        limit.setCapacity(2);
+        limit.setPeriod(Duration.ofSeconds(10));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setLimits(List.of(limit));
+
+        registry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(new RateLimiter(properties, registry, clock::get));
+    }
+
+    @Test
+    @DisplayName("Responde 429 com Retry-After quando o cliente passa do limite")
+    void doFilter_Returns429_WhenClientExceedsLimit() throws Exception {
+        Assertions.assertThat(request("/animes/all", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+        Assertions.assertThat(request("/animes/all", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse response = request("/animes/all", "10.0.0.1");
+
+        Assertions.assertThat(response.getStatus())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        //Capacidade 2 a cada 10s: uma nova requisição é liberada a cada 5s
+        Assertions.assertThat(response.getHeader(HttpHeaders.RETRY_AFTER))
+                .isEqualTo("5");
+        Assertions.assertThat(registry.get(RateLimiter.METRIC_NAME).counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Limita cada cliente separadamente e libera as requisições com o passar do tempo")
+    void doFilter_RefillsPerClient_WhenTimePasses() throws Exception {
+        request("/animes/all", "10.0.0.1");
+        request("/animes/all", "10.0.0.1");
+
+        Assertions.assertThat(request("/animes/all", "10.0.0.2").getStatus()).isEqualTo(HttpStatus.OK.value());
+        Assertions.assertThat(request("/animes/1", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        Assertions.assertThat(request("/animes/all", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+        Assertions.assertThat(request("/animes/all", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private MockHttpServletResponse request(String path, String address) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.alkhanm.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alkhanm.config.TokenProperties;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+@DisplayName("Testes para: TokenService")
+class TokenServiceTest {
+    private static final Instant NOW = Instant.parse("2021-04-01T10:00:00Z");
+
+    private final TokenService tokenService = tokenService(NOW);
+
+    @Test
+    @DisplayName("Retorna a autenticação com as authorities contidas no token")
+    void parse_ReturnsAuthentication_WhenTokenIsValid() {
+        String token = tokenService.issue(authentication());
+
+        Authentication authentication = tokenService.parse(token);
+
+        Assertions.assertThat(authentication)
+                .isNotNull();
+        Assertions.assertThat(authentication.getName())
+                .isEqualTo("Feosmur");
+        Assertions.assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities()))
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Retorna null quando o token foi alterado")
+    void parse_ReturnsNull_WhenTokenIsTampered() {
+        String token = tokenService.issue(authentication());
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1].substring(0, parts[1].length() - 2) + "AA." + parts[2];
+
+        Assertions.assertThat(tokenService.parse(tampered))
+                .isNull();
+        Assertions.assertThat(tokenService.parse("not a token"))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("Retorna null quando o token está expirado")
+    void parse_ReturnsNull_WhenTokenIsExpired() {
+        String token = tokenService.issue(authentication());
+
+        Assertions.assertThat(tokenService(NOW.plus(Duration.ofHours(1))).parse(token))
+                .isNull();
+    }
+
+    private static TokenService tokenService(Instant now) {
+        TokenProperties properties = new TokenProperties();
+        properties.setSecret("MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=");
+        return new TokenService(properties, new ObjectMapper(), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Authentication authentication() {
+        return new UsernamePasswordAuthenticationToken("Feosmur", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.domain.Anime;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+@DisplayName("Testes para: AnimeCatalogSnapshot")
+class AnimeCatalogSnapshotTest {
+    private final Anime bleach = anime(1L, "Bleach", 0L);
+    private final Anime naruto = anime(5L, "Naruto", 2L);
+    private final Anime narutoShippuden = anime(3L, "naruto", 1L);
+    private final AnimeCatalogSnapshot snapshot = AnimeCatalogSnapshot.of(List.of(naruto, bleach, narutoShippuden));
+
+    @Test
+    @DisplayName("Retorna os animes ordenados por id")
+    void toList_ReturnsAnimesOrderedById_WhenSuccessful() {
+        Assertions.assertThat(snapshot.toList())
+                .containsExactly(bleach, narutoShippuden, naruto);
+        Assertions.assertThat(snapshot.get(5L))
+                .isEqualTo(naruto);
+        Assertions.assertThat(snapshot.get(2L))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("Busca pelo nome sem diferenciar maiúsculas de minúsculas")
+    void findByName_IgnoresCase_WhenSuccessful() {
+        Assertions.assertThat(snapshot.findByName("NARUTO"))
+                .containsExactly(narutoShippuden, naruto);
+        Assertions.assertThat(snapshot.findByName("One Piece"))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Gera uma nova cópia com os animes incluídos, alterados e removidos, sem alterar a anterior")
+    void with_AppliesChangesToNewSnapshot_WhenSuccessful() {
+        Anime renamed = anime(3L, "Boruto", 2L);
+        Anime onePiece = anime(7L, "One Piece", 0L);
+
+        AnimeCatalogSnapshot changed = snapshot.with(List.of(7L, 3L, 1L), Map.of(3L, renamed, 7L, onePiece));
+
+        Assertions.assertThat(changed.toList())
+                .containsExactly(renamed, naruto, onePiece);
+        Assertions.assertThat(changed.findByName("boruto"))
+                .containsExactly(renamed);
+        Assertions.assertThat(snapshot.toList())
+                .containsExactly(bleach, narutoShippuden, naruto);
+    }
+
+    @Test
+    @DisplayName("Mantém a ordem por nome ao incluir, renomear e remover animes, sem reordenar a cópia")
+    void with_KeepsNameOrder_WhenNamesChange() {
+        Anime renamed = anime(5L, "Attack on Titan", 3L);
+        Anime another = anime(2L, "naruto", 0L);
+
+        AnimeCatalogSnapshot changed = snapshot.with(List.of(5L, 2L, 1L), Map.of(5L, renamed, 2L, another));
+
+        Assertions.assertThat(changed.findByName("naruto"))
+                .containsExactly(another, narutoShippuden);
+        Assertions.assertThat(changed.findByName("attack on titan"))
+                .containsExactly(renamed);
+        Assertions.assertThat(changed.findByName("bleach"))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Chega à mesma cópia de uma carga completa depois de várias alterações")
+    void with_MatchesFullLoad_AfterManyChanges() {
+        Random random = new Random(42);
+        Map<Long, Anime> animes = new HashMap<>();
+        AnimeCatalogSnapshot current = AnimeCatalogSnapshot.of(List.of());
+        for (int round = 0; round < 200; round++) {
+            List<Long> changed = new ArrayList<>();
+            Map<Long, Anime> reread = new HashMap<>();
+            for (int k = 0; k < 5; k++) {
+                long id = random.nextInt(50);
+                changed.add(id);
+                if (random.nextInt(4) == 0) {
+                    animes.remove(id);
+                    reread.remove(id);
+                } else {
+                    Anime anime = anime(id, "Anime " + random.nextInt(10), round);
+                    animes.put(id, anime);
+                    reread.put(id, anime);
+                }
+            }
+            current = current.with(changed, reread);
+        }
+        AnimeCatalogSnapshot loaded = AnimeCatalogSnapshot.of(animes.values());
+
+        Assertions.assertThat(current.hasSameContent(loaded)).isTrue();
+        Assertions.assertThat(current.getVersion()).isEqualTo(loaded.getVersion());
+        for (int name = 0; name < 10; name++) {
+            Assertions.assertThat(current.findByName("anime " + name))
+                    .isEqualTo(loaded.findByName("Anime " + name));
+        }
+    }
+
+    @Test
+    @DisplayName("Gera a mesma versão para o mesmo conteúdo, em qualquer instância, e outra quando o conteúdo muda")
+    void getVersion_DependsOnlyOnContent_WhenSuccessful() {
+        AnimeCatalogSnapshot reloaded = AnimeCatalogSnapshot.of(List.of(bleach, narutoShippuden, naruto));
+        Anime boruto = anime(3L, "Boruto", 2L);
+        AnimeCatalogSnapshot changed = snapshot.with(List.of(3L), Map.of(3L, boruto));
+
+        Assertions.assertThat(reloaded.getVersion())
+                .isEqualTo(snapshot.getVersion());
+        Assertions.assertThat(changed.getVersion())
+                .isNotEqualTo(snapshot.getVersion())
+                .isEqualTo(AnimeCatalogSnapshot.of(List.of(bleach, boruto, naruto)).getVersion());
+        Assertions.assertThat(changed.with(List.of(3L), Map.of(3L, narutoShippuden)).getVersion())
+                .isEqualTo(snapshot.getVersion());
+        Assertions.assertThat(reloaded.hasSameContent(snapshot))
+                .isTrue();
+        Assertions.assertThat(changed.hasSameContent(snapshot))
+                .isFalse();
+    }
+
+    private static Anime anime(long id, String name, long version) {
+        return Anime.builder().id(id).name(name).version(version).build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.config.AnimeCollectionVersionProperties;
+import com.github.alkhanm.repository.AnimeCollectionVersionRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+@DisplayName("Testes para: AnimeCollectionVersionTracker")
+class AnimeCollectionVersionTrackerTest {
+    private final AnimeCollectionVersionRepository repository = Mockito.mock(AnimeCollectionVersionRepository.class);
+    private AnimeCollectionVersionTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new AnimeCollectionVersionTracker(repository, new AnimeCollectionVersionProperties(),
+                Mockito.mock(PlatformTransactionManager.class));
+        BDDMockito.when(repository.findVersion())
+                .thenReturn(Optional.of(7L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Lê o marcador uma única vez e o mantém em memória até a próxima sincronização")
+    void current_ReadsMarkerOnce_WhenNotSynced() {
+        Assertions.assertThat(tracker.current()).isEqualTo(7);
+        Assertions.assertThat(tracker.current()).isEqualTo(7);
+
+        Mockito.verify(repository, Mockito.times(1)).findVersion();
+    }
+
+    @Test
+    @DisplayName("Incrementa a versão apenas depois do commit da alteração, sem acessar o banco de dados")
+    void changed_IncrementsVersionAfterCommit_WhenTransactionIsActive() {
+        Assertions.assertThat(tracker.current()).isEqualTo(7);
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.changed();
+        Assertions.assertThat(tracker.current()).isEqualTo(7);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        Assertions.assertThat(tracker.current()).isEqualTo(8);
+        Mockito.verify(repository, Mockito.times(1)).findVersion();
+        Mockito.verify(repository, Mockito.never()).add(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Soma as alterações pendentes ao marcador na sincronização, junto com as das outras instâncias")
+    void syncQuietly_AddsPendingChangesToMarker_WhenSuccessful() {
+        Assertions.assertThat(tracker.current()).isEqualTo(7);
+        tracker.changed();
+        tracker.changed();
+        //Outra instância somou 3 alterações enquanto isso
+        BDDMockito.when(repository.findVersion())
+                .thenReturn(Optional.of(12L));
+
+        tracker.syncQuietly();
+
+        Mockito.verify(repository).add(2);
+        Assertions.assertThat(tracker.current()).isEqualTo(12);
+
+        tracker.syncQuietly();
+        Mockito.verify(repository, Mockito.times(1)).add(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Mantém as alterações pendentes para a próxima sincronização quando a atual falha")
+    void syncQuietly_KeepsPendingChanges_WhenSyncFails() {
+        Assertions.assertThat(tracker.current()).isEqualTo(7);
+        tracker.changed();
+        BDDMockito.when(repository.add(1))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(1);
+
+        tracker.syncQuietly();
+        Assertions.assertThat(tracker.current()).isEqualTo(8);
+
+        BDDMockito.when(repository.findVersion())
+                .thenReturn(Optional.of(8L));
+        tracker.syncQuietly();
+
+        Mockito.verify(repository, Mockito.times(2)).add(1);
+        Assertions.assertThat(tracker.current()).isEqualTo(8);
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.config.AnimeBatchProperties;
+import com.github.alkhanm.config.BatchLoaderProperties;
+import com.github.alkhanm.config.CacheConfig;
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.repository.AnimeRepository;
+import com.github.alkhanm.util.AnimeCreator;
+import com.github.alkhanm.util.AnimePutRequestBodyCreator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testes para: cache do AnimeService")
+class AnimeServiceCacheTest {
+
+    @TestConfiguration
+    @Import({CacheConfig.class, AnimeBatchProperties.class, BatchLoaderProperties.class, AnimeService.class})
+    static class Config {
+        @Bean
+        public CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.ANIMES_CACHE);
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private AnimeService service;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private AnimeRepository repository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private Validator validator;
+
+    @MockBean
+    private AnimeCatalog catalog;
+
+    @MockBean
+    private AnimeCollectionVersionTracker versionTracker;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.ANIMES_CACHE).clear();
+
+        BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(AnimeCreator.createValidAnime()));
+
+        BDDMockito.when(repository.save(ArgumentMatchers.any(Anime.class)))
+                .thenReturn(AnimeCreator.createValidAnime());
+
+        BDDMockito.when(repository.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString()))
+                .thenReturn(1);
+    }
+
+    @Test
+    @DisplayName("Acessa o banco de dados apenas uma vez quando o mesmo id é buscado várias vezes")
+    void findByIdOrThrowException_HitsRepositoryOnce_WhenAnimeIsCached() {
+        service.findByIdOrThrowException(1L);
+        Anime anime = service.findByIdOrThrowException(1L);
+
+        Assertions.assertThat(anime)
+                .isEqualTo(AnimeCreator.createValidAnime());
+
+        Mockito.verify(repository, Mockito.times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Remove o anime do cache após removê-lo do banco de dados")
+    void delete_EvictsAnimeFromCache_WhenSuccessful() {
+        service.findByIdOrThrowException(1L);
+        service.delete(1L);
+        service.findByIdOrThrowException(1L);
+
+        Mockito.verify(repository, Mockito.times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Remove o anime do cache após substituí-lo")
+    void replace_EvictsAnimeFromCache_WhenSuccessful() {
+        service.findByIdOrThrowException(1L);
+        service.replace(AnimePutRequestBodyCreator.create(), null);
+
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.ANIMES_CACHE).get(1L))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("Não guarda o anime antigo quando a busca termina depois da alteração")
+    void findByIdOrThrowException_DoesNotCacheStaleAnime_WhenReplacedDuringTheRead() throws Exception {
+        Anime old = Anime.builder().id(1L).name("Old name").version(0L).build();
+        Anime current = Anime.builder().id(1L).name("New name").version(1L).build();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch replaced = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        //A primeira busca lê o anime antes da alteração e só termina depois dela
+        BDDMockito.when(repository.findById(1L))
+                .thenAnswer(invocation -> {
+                    reading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(old);
+                })
+                .thenReturn(Optional.of(current));
+        BDDMockito.when(repository.updateName(ArgumentMatchers.eq(1L), ArgumentMatchers.anyString(), ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> {
+                    replaced.countDown();
+                    return 1;
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Anime> read = executor.submit(() -> service.findByIdOrThrowException(1L));
+            Assertions.assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> replace = executor.submit(() -> service.replace(AnimePutRequestBodyCreator.create(), null));
+            Assertions.assertThat(replaced.await(5, TimeUnit.SECONDS)).isTrue();
+            //Dá tempo para a alteração chegar à remoção do cache antes de a busca terminar
+            Thread.sleep(100);
+            release.countDown();
+            read.get(5, TimeUnit.SECONDS);
+            replace.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertThat(service.findByIdOrThrowException(1L))
+                .isEqualTo(current);
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.config.AnimeBatchProperties;
+import com.github.alkhanm.config.AnimeCatalogProperties;
+import com.github.alkhanm.config.AnimeCollectionVersionProperties;
+import com.github.alkhanm.config.AnimeSchemaInitializer;
+import com.github.alkhanm.config.BatchLoaderProperties;
+import com.github.alkhanm.config.CacheConfig;
+import com.github.alkhanm.domain.Anime;
+import com.github.alkhanm.repository.AnimeCollectionVersionRepository;
+import com.github.alkhanm.repository.AnimeRepository;
+import com.github.alkhanm.request.AnimePatchRequestBody;
+import com.github.alkhanm.request.AnimePostRequestBody;
+import com.github.alkhanm.request.AnimePutRequestBody;
+import com.github.alkhanm.sql.DataSourceProxyPostProcessor;
+import com.github.alkhanm.sql.SqlStatementCounter;
+import com.github.alkhanm.sql.SqlStatistics;
+import com.github.alkhanm.util.AnimeCreator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Garante a quantidade de idas ao banco de dados de cada operação, uma regressão (N+1, SELECT antes do UPDATE) falha o teste
+@DataJpaTest(properties = "anime.batch.size=50")
+//Sem a transação do teste, cada operação faz o flush e o commit como em produção
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AnimeService.class, AnimeSchemaInitializer.class, AnimeBatchProperties.class, BatchLoaderProperties.class, AnimeCatalog.class,
+        AnimeCatalogProperties.class, AnimeCollectionVersionTracker.class, AnimeCollectionVersionProperties.class,
+        CacheConfig.class, DataSourceProxyPostProcessor.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration({ValidationAutoConfiguration.class, CacheAutoConfiguration.class})
+@DisplayName("Testes para: instruções SQL executadas pelo AnimeService")
+class AnimeServiceSqlTest {
+    @Autowired
+    private AnimeService service;
+
+    @Autowired
+    private AnimeRepository repository;
+
+    @Autowired
+    private AnimeCollectionVersionRepository versionRepository;
+
+    @Autowired
+    private AnimeCollectionVersionTracker versionTracker;
+
+    private Anime anime;
+
+    @BeforeEach
+    void setUp() {
+        anime = repository.save(AnimeCreator.createAnimeToBeSaved());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Substitui o anime com uma única instrução")
+    void replace_ExecutesOneStatement_WhenSuccessful() {
+        AnimePutRequestBody body = AnimePutRequestBody.builder().id(anime.getId()).name("Naruto").build();
+
+        SqlStatistics statistics = SqlStatementCounter.count(() -> service.replace(body, anime.getVersion()));
+
+        Assertions.assertThat(statistics.getStatements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Altera o nome do anime com uma única instrução")
+    void patch_ExecutesOneStatement_WhenSuccessful() {
+        AnimePatchRequestBody body = AnimePatchRequestBody.builder().name("Naruto").build();
+
+        SqlStatistics statistics = SqlStatementCounter.count(() -> service.patch(anime.getId(), body, null));
+
+        Assertions.assertThat(statistics.getStatements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Muda a versão da coleção em memória a cada alteração, e a soma ao marcador com um UPDATE apenas na sincronização")
+    void collectionVersion_ChangesWithoutStatements_WhenAnimeIsChanged() {
+        versionTracker.syncQuietly();
+        long before = versionTracker.current();
+        long marker = versionRepository.findVersion().orElseThrow();
+
+        service.patch(anime.getId(), AnimePatchRequestBody.builder().name("Naruto").build(), null);
+        SqlStatistics reading = SqlStatementCounter.count(versionTracker::current);
+        SqlStatistics sync = SqlStatementCounter.count(versionTracker::syncQuietly);
+
+        Assertions.assertThat(reading.getStatements()).isZero();
+        Assertions.assertThat(sync.getStatements()).isEqualTo(2);
+        Assertions.assertThat(versionTracker.current()).isEqualTo(before + 1);
+        Assertions.assertThat(versionRepository.findVersion()).contains(marker + 1);
+    }
+
+    @Test
+    @DisplayName("Retorna a versão de /animes/all da memória, sem executar instruções depois da primeira leitura")
+    void getAllVersion_ExecutesNoStatement_WhenAlreadyLoaded() {
+        String version = service.getAllVersion();
+
+        SqlStatistics statistics = SqlStatementCounter.count(() -> service.getAllVersion());
+
+        Assertions.assertThat(statistics.getStatements()).isZero();
+        Assertions.assertThat(service.getAllVersion()).isEqualTo(version);
+    }
+
+    @Test
+    @DisplayName("Busca os animes pelo nome em uma transação somente leitura, que pode ser atendida pelas réplicas")
+    void findByName_ExecutesInReadOnlyTransaction_WhenSuccessful() {
+        SqlStatistics statistics = SqlStatementCounter.count(() -> service.findByName(anime.getName()));
+
+        Assertions.assertThat(statistics.getStatements()).isEqualTo(1);
+        Assertions.assertThat(statistics.getReadOnlyStatements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Busca o anime pelo id com uma única instrução")
+    void findByIdOrThrowException_ExecutesOneStatement_WhenSuccessful() {
+        SqlStatistics statistics = SqlStatementCounter.count(() -> service.findByIdOrThrowException(anime.getId()));
+
+        Assertions.assertThat(statistics.getStatements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Salva os animes em lotes, e não com um INSERT por anime")
+    void saveAll_ExecutesBatches_WhenSuccessful() {
+        List<AnimePostRequestBody> bodies = IntStream.range(0, 120)
+                .mapToObj(i -> AnimePostRequestBody.builder().name("Anime " + i).build())
+                .collect(Collectors.toList());
+
+        SqlStatistics statistics = SqlStatementCounter.count(() -> service.saveAll(bodies));
+
+        //3 lotes de INSERT e o marcador de alterações, além das consultas à sequência dos ids (allocationSize 50)
+        Assertions.assertThat(statistics.getStatements()).isLessThanOrEqualTo(7);
+        Assertions.assertThat(statistics.getRepeated(5)).isEmpty();
+    }
+}
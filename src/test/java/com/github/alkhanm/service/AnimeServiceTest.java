@@ -1,29 +1,60 @@
 package com.github.alkhanm.service;
 
+import com.github.alkhanm.config.AnimeBatchProperties;
+import com.github.alkhanm.config.BatchLoaderProperties;
+import com.github.alkhanm.config.CacheConfig;
 import com.github.alkhanm.domain.Anime;
 import com.github.alkhanm.exception.BadRequestException;
+import com.github.alkhanm.exception.PreconditionFailedException;
 import com.github.alkhanm.repository.AnimeRepository;
+import com.github.alkhanm.request.AnimePatchRequestBody;
 import com.github.alkhanm.request.AnimePostRequestBody;
+import com.github.alkhanm.request.AnimePutRequestBody;
+import com.github.alkhanm.response.AnimeMultiGetResponse;
+import com.github.alkhanm.response.BatchItemResult;
+import com.github.alkhanm.response.BatchItemStatus;
+import com.github.alkhanm.response.BatchResponse;
 import com.github.alkhanm.util.AnimeCreator;
 import com.github.alkhanm.util.AnimePostRequestBodyCreator;
 import com.github.alkhanm.util.AnimePutRequestBodyCreator;
+import com.github.alkhanm.wrapper.CursorPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 @DisplayName("Testes para: AnimeService")
@@ -35,6 +66,33 @@ class AnimeServiceTest {
     @Mock //Injeta as classes utilizadas pela classe testada
     private AnimeRepository repository;
 
+    @Mock
+    private AnimeCollectionVersionTracker versionTracker;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private AnimeBatchProperties batchProperties = new AnimeBatchProperties();
+
+    @Spy
+    private BatchLoaderProperties batchLoaderProperties = new BatchLoaderProperties();
+
+    @Mock
+    private AnimeCatalog catalog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.ANIMES_CACHE);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @BeforeEach//Executa antes de qualquer operação
     void setUp() {
         PageImpl<Anime> animePage = new PageImpl<>(List.of(AnimeCreator.createValidAnime()));
@@ -46,6 +104,9 @@ class AnimeServiceTest {
         BDDMockito.when(repository.findAll())
                 .thenReturn(List.of(AnimeCreator.createValidAnime()));
 
+        BDDMockito.when(repository.streamAll())
+                .thenAnswer(invocation -> Stream.of(AnimeCreator.createValidAnime()));
+
         BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Optional.of(AnimeCreator.createValidAnime()));
 
@@ -55,6 +116,12 @@ class AnimeServiceTest {
         BDDMockito.when(repository.save(ArgumentMatchers.any(Anime.class)))
                 .thenReturn(AnimeCreator.createValidAnime());
 
+        BDDMockito.when(repository.updateName(ArgumentMatchers.eq(1L), ArgumentMatchers.anyString(), ArgumentMatchers.anyString()))
+                .thenReturn(1);
+
+        BDDMockito.when(repository.existsById(1L))
+                .thenReturn(true);
+
         BDDMockito.doNothing().when(repository)
                 .delete(ArgumentMatchers.any(Anime.class));
     }
@@ -74,6 +141,39 @@ class AnimeServiceTest {
                 .isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("Retorna uma página por cursor e o cursor da próxima página")
+    void listByCursor_ReturnsPageAndNextCursor_WhenThereAreMoreAnimes() {
+        BDDMockito.when(repository.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.eq(0L), ArgumentMatchers.any()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime(), Anime.builder().id(2L).name("Naruto").build()));
+        BDDMockito.when(repository.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.eq(1L), ArgumentMatchers.any()))
+                .thenReturn(List.of(Anime.builder().id(2L).name("Naruto").build()));
+
+        CursorPage<Anime> firstPage = service.listByCursor(null, 1, "id");
+
+        Assertions.assertThat(firstPage.getContent())
+                .containsExactly(AnimeCreator.createValidAnime());
+        Assertions.assertThat(firstPage.isHasNext())
+                .isTrue();
+
+        CursorPage<Anime> secondPage = service.listByCursor(firstPage.getNextCursor(), 1, "name");
+
+        Assertions.assertThat(secondPage.getContent())
+                .extracting(Anime::getId)
+                .containsExactly(2L);
+        Assertions.assertThat(secondPage.isHasNext())
+                .isFalse();
+        Assertions.assertThat(secondPage.getNextCursor())
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("Lança uma BadRequestException quando o cursor é inválido")
+    void listByCursor_ThrowsBadRequestException_WhenCursorIsInvalid() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.listByCursor("not a cursor", 10, "id"));
+    }
+
     @Test
     @DisplayName("Retorna uma lista com todos os animes")
     void listAll_ReturnsListOfAnimes_WhenSuccessful() {
@@ -89,6 +189,81 @@ class AnimeServiceTest {
                 .isEqualTo(expectedName);
     }
 
+    @Test
+    @DisplayName("Usa o catálogo em memória nas leituras quando ele está carregado, sem acessar o repositório")
+    void listAll_UsesCatalog_WhenCatalogIsLoaded() {
+        BDDMockito.when(catalog.snapshot())
+                .thenReturn(AnimeCatalogSnapshot.of(List.of(AnimeCreator.createValidAnime())));
+
+        Assertions.assertThat(service.listAll())
+                .containsExactly(AnimeCreator.createValidAnime());
+        Assertions.assertThat(service.findByName("bleach"))
+                .containsExactly(AnimeCreator.createValidAnime());
+
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Atualiza o catálogo com os animes alterados")
+    void save_RefreshesCatalog_WhenSuccessful() {
+        service.save(AnimePostRequestBodyCreator.create());
+
+        Mockito.verify(catalog).refresh(List.of(AnimeCreator.createValidAnime().getId()));
+    }
+
+    @Test
+    @DisplayName("Atualiza a versão em memória de /animes/all depois do catálogo a cada alteração")
+    void save_NotifiesVersionTrackerAfterCatalog_WhenSuccessful() {
+        service.save(AnimePostRequestBodyCreator.create());
+        service.patch(1L, AnimePatchRequestBody.builder().name("Naruto").build(), null);
+
+        InOrder inOrder = Mockito.inOrder(catalog, versionTracker);
+        inOrder.verify(catalog).refresh(List.of(AnimeCreator.createValidAnime().getId()));
+        inOrder.verify(versionTracker).changed();
+        Mockito.verify(versionTracker, Mockito.times(2)).changed();
+    }
+
+    @Test
+    @DisplayName("Retorna a versão de /animes/all sem acessar o banco de dados")
+    void getAllVersion_DoesNotQueryDatabase_WhenSuccessful() {
+        BDDMockito.when(versionTracker.current())
+                .thenReturn(7L);
+        Assertions.assertThat(service.getAllVersion())
+                .isEqualTo("v7");
+
+        AnimeCatalogSnapshot snapshot = AnimeCatalogSnapshot.of(List.of(AnimeCreator.createValidAnime()));
+        BDDMockito.when(catalog.snapshot())
+                .thenReturn(snapshot);
+        Assertions.assertThat(service.getAllVersion())
+                .isEqualTo("c" + snapshot.getVersion());
+
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Não incrementa o marcador de alterações quando nenhum anime do lote foi alterado")
+    void deleteAll_DoesNotIncrementCollectionVersion_WhenNoAnimeExists() {
+        BDDMockito.when(repository.findExistingIds(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of());
+
+        service.deleteAll(List.of(10L, 11L));
+
+        Mockito.verifyNoInteractions(versionTracker);
+    }
+
+    @Test
+    @DisplayName("Entrega todos os animes ao consumidor, removendo-os do contexto de persistência")
+    void exportAll_PassesEveryAnimeToConsumer_WhenSuccessful() {
+        List<Anime> exported = new ArrayList<>();
+
+        service.exportAll(exported::add);
+
+        Assertions.assertThat(exported)
+                .containsExactly(AnimeCreator.createValidAnime());
+
+        Mockito.verify(entityManager).detach(AnimeCreator.createValidAnime());
+    }
+
     @Test
     @DisplayName("Retorna um anime que possua um certo id ou então lança uma exceção")
     void findByIdOrThrowException_ReturnsAnAnime_WhenSuccessful() {
@@ -102,6 +277,9 @@ class AnimeServiceTest {
         Assertions.assertThat(anime.getId())
                 .isNotNull()
                 .isEqualTo(expectedId);
+
+        //Carregado pelo BatchLoader, que entrega o anime às threads das outras buscas do lote
+        Mockito.verify(entityManager).detach(AnimeCreator.createValidAnime());
     }
 
     @Test
@@ -128,6 +306,59 @@ class AnimeServiceTest {
         Assertions.assertThat(anime.get(0).getName())
                 .isNotNull()
                 .isEqualTo(expectedName);
+
+        //O resultado é compartilhado com as buscas simultâneas, não pode continuar no contexto de persistência
+        Mockito.verify(entityManager).detach(AnimeCreator.createValidAnime());
+    }
+
+    @Test
+    @DisplayName("Retorna os animes na ordem dos ids e informa os ids inexistentes")
+    void findByIds_PreservesOrderAndReportsMissing_WhenSomeIdsDoNotExist() {
+        Anime naruto = Anime.builder().id(5L).name("Naruto").version(0L).build();
+        BDDMockito.when(repository.findAllById(ArgumentMatchers.anyIterable()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime(), naruto));
+
+        AnimeMultiGetResponse response = service.findByIds(List.of(5L, 9L, 1L, 5L));
+
+        Assertions.assertThat(response.getAnimes())
+                .containsExactly(naruto, AnimeCreator.createValidAnime());
+        Assertions.assertThat(response.getMissing())
+                .containsExactly(9L);
+        //Uma única consulta, sem ids repetidos
+        Mockito.verify(repository).findAllById(Set.of(5L, 9L, 1L));
+    }
+
+    @Test
+    @DisplayName("Lança uma BadRequestException quando há mais ids do que o permitido")
+    void findByIds_ThrowsBadRequestException_WhenThereAreTooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, batchProperties.getMaxIds() + 1).boxed().collect(Collectors.toList());
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.findByIds(ids));
+        Mockito.verify(repository, Mockito.never()).findAllById(ArgumentMatchers.anyIterable());
+    }
+
+    @Test
+    @DisplayName("Busca animes pelo prefixo normalizado, limitando o tamanho da página")
+    void search_UsesNormalizedPrefixAndCapsPageSize_WhenSuccessful() {
+        BDDMockito.when(repository.findBySearchNameStartingWith(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(new SliceImpl<>(List.of(AnimeCreator.createValidAnime())));
+
+        Assertions.assertThat(service.search(" BLE ", AnimeSearchMode.PREFIX, 0, 1000))
+                .containsExactly(AnimeCreator.createValidAnime());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        Mockito.verify(repository).findBySearchNameStartingWith(ArgumentMatchers.eq("ble"), pageable.capture());
+
+        Assertions.assertThat(pageable.getValue().getPageSize())
+                .isEqualTo(AnimeService.MAX_SEARCH_PAGE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Lança uma BadRequestException quando o texto buscado está vazio")
+    void search_ThrowsBadRequestException_WhenQueryIsBlank() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.search(" ", AnimeSearchMode.CONTAINS, 0, 10));
     }
 
     @Test
@@ -157,10 +388,45 @@ class AnimeServiceTest {
     @Test
     @DisplayName("Substitui um anime por outro")
     void replace_UpdateAnime_WhenSuccessful() {
-        Assertions.assertThatCode(() -> service.replace(AnimePutRequestBodyCreator.create()))
+        Assertions.assertThatCode(() -> service.replace(AnimePutRequestBodyCreator.create(), null))
                 .doesNotThrowAnyException();
     }
 
+    @Test
+    @DisplayName("Substitui o anime com um único UPDATE, sem carregá-lo")
+    void replace_UpdatesWithoutLoadingAnime_WhenSuccessful() {
+        service.replace(AnimePutRequestBodyCreator.create(), null);
+
+        Mockito.verify(repository).updateName(1L, "Bleach", "bleach");
+        Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+        Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.any(Anime.class));
+    }
+
+    @Test
+    @DisplayName("Lança BadRequestException quando nenhuma linha é alterada porque o anime não existe")
+    void replace_ThrowsBadRequestException_WhenAnimeIsNotFound() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.replace(new AnimePutRequestBody(2L, "Naruto"), null));
+    }
+
+    @Test
+    @DisplayName("Lança PreconditionFailedException quando a versão do If-Match não é a versão atual")
+    void replace_ThrowsPreconditionFailedException_WhenVersionDoesNotMatch() {
+        Assertions.assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> service.replace(AnimePutRequestBodyCreator.create(), 5L));
+
+        Mockito.verify(repository).updateNameIfVersion(1L, "Bleach", "bleach", 5L);
+    }
+
+    @Test
+    @DisplayName("Lança BadRequestException quando o patch não altera nenhum campo")
+    void patch_ThrowsBadRequestException_WhenBodyIsEmpty() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.patch(1L, new AnimePatchRequestBody(), null));
+
+        Mockito.verifyNoInteractions(repository);
+    }
+
     @Test
     @DisplayName("Remove um anime")
     void delete_RemovesAnime_WhenSuccessful() {
@@ -168,4 +434,106 @@ class AnimeServiceTest {
                 .doesNotThrowAnyException();
     }
 
+
+    @Test
+    @DisplayName("Salva os animes válidos em lote e reporta os inválidos")
+    void saveAll_ReportsEachItem_WhenSomeItemsAreInvalid() {
+        BatchResponse response = service.saveAll(List.of(AnimePostRequestBodyCreator.create(), new AnimePostRequestBody("")));
+
+        Assertions.assertThat(response.getSucceeded()).isEqualTo(1);
+        Assertions.assertThat(response.getFailed()).isEqualTo(1);
+        Assertions.assertThat(response.getItems())
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.INVALID);
+
+        Mockito.verify(entityManager, Mockito.times(1)).persist(ArgumentMatchers.any(Anime.class));
+    }
+
+    @Test
+    @DisplayName("Substitui os animes existentes e reporta os que não foram encontrados")
+    void replaceAll_ReportsNotFound_WhenAnimeDoesNotExist() {
+        BDDMockito.when(repository.findAllById(ArgumentMatchers.any()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+
+        BatchResponse response = service.replaceAll(List.of(
+                AnimePutRequestBodyCreator.create(),
+                new AnimePutRequestBody(2L, "Naruto")));
+
+        Assertions.assertThat(response.getItems())
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.UPDATED, BatchItemStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("Remove os animes existentes com uma única instrução e reporta os que não foram encontrados")
+    void deleteAll_ReportsNotFound_WhenAnimeDoesNotExist() {
+        BDDMockito.when(repository.findExistingIds(ArgumentMatchers.any()))
+                .thenReturn(List.of(1L));
+
+        BatchResponse response = service.deleteAll(List.of(1L, 2L));
+
+        Assertions.assertThat(response.getItems())
+                .extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.DELETED, BatchItemStatus.NOT_FOUND);
+
+        Mockito.verify(repository).deleteByIdIn(Set.of(1L));
+    }
+
+    @Test
+    @DisplayName("Reporta os itens null como inválidos, na sua posição")
+    void saveAll_ReportsNullItemAsInvalid_WhenItemIsNull() {
+        BatchResponse response = service.saveAll(Arrays.asList(AnimePostRequestBodyCreator.create(), null));
+
+        Assertions.assertThat(response.getItems())
+                .extracting(BatchItemResult::getIndex, BatchItemResult::getStatus)
+                .containsExactly(Assertions.tuple(0, BatchItemStatus.CREATED), Assertions.tuple(1, BatchItemStatus.INVALID));
+    }
+
+    @Test
+    @DisplayName("Reporta os itens null como inválidos ao substituir em lote")
+    void replaceAll_ReportsNullItemAsInvalid_WhenItemIsNull() {
+        BDDMockito.when(repository.findAllById(ArgumentMatchers.any()))
+                .thenReturn(List.of(AnimeCreator.createValidAnime()));
+
+        BatchResponse response = service.replaceAll(Arrays.asList(null, AnimePutRequestBodyCreator.create()));
+
+        Assertions.assertThat(response.getItems())
+                .extracting(BatchItemResult::getIndex, BatchItemResult::getStatus)
+                .containsExactly(Assertions.tuple(0, BatchItemStatus.INVALID), Assertions.tuple(1, BatchItemStatus.UPDATED));
+    }
+
+    @Test
+    @DisplayName("Reporta os ids null como inválidos e não os consulta")
+    void deleteAll_ReportsNullIdAsInvalid_WhenIdIsNull() {
+        BDDMockito.when(repository.findExistingIds(ArgumentMatchers.any()))
+                .thenReturn(List.of(1L));
+
+        BatchResponse response = service.deleteAll(Arrays.asList(1L, null));
+
+        Assertions.assertThat(response.getItems())
+                .extracting(BatchItemResult::getIndex, BatchItemResult::getStatus)
+                .containsExactly(Assertions.tuple(0, BatchItemStatus.DELETED), Assertions.tuple(1, BatchItemStatus.INVALID));
+
+        Mockito.verify(repository).findExistingIds(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Lança uma BadRequestException quando o lote é null")
+    void batchOperations_ThrowBadRequestException_WhenBatchIsNull() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.saveAll(null));
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.replaceAll(null));
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.deleteAll(null));
+    }
+
+    @Test
+    @DisplayName("Lança uma BadRequestException quando o lote excede o tamanho máximo")
+    void saveAll_ThrowsBadRequestException_WhenBatchIsTooLarge() {
+        batchProperties.setMaxItems(1);
+
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.saveAll(List.of(AnimePostRequestBodyCreator.create(), AnimePostRequestBodyCreator.create())));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.config.WriteBehindProperties;
+import com.github.alkhanm.exception.BadRequestException;
+import com.github.alkhanm.exception.ServiceUnavailableException;
+import com.github.alkhanm.request.AnimePostRequestBody;
+import com.github.alkhanm.response.AnimeIngestResponse;
+import com.github.alkhanm.response.AnimeIngestStatus;
+import com.github.alkhanm.response.BatchItemResult;
+import com.github.alkhanm.response.BatchItemStatus;
+import com.github.alkhanm.response.BatchResponse;
+import com.github.alkhanm.util.AnimeCreator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.UUID;
+
+@DisplayName("Testes para: AnimeWriteBehind")
+class AnimeWriteBehindTest {
+    private final AnimeService service = Mockito.mock(AnimeService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AnimeWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setCapacity(2);
+        writeBehind = new AnimeWriteBehind(service, properties, registry);
+    }
+
+    @Test
+    @DisplayName("Grava os animes enfileirados em uma única transação e informa o id de cada um")
+    void flushQueued_WritesQueuedAnimesInOneBatch_WhenSuccessful() {
+        BDDMockito.when(service.saveAll(ArgumentMatchers.anyList())).thenReturn(BatchResponse.of(List.of(
+                BatchItemResult.builder().index(0).id(1L).status(BatchItemStatus.CREATED).build(),
+                BatchItemResult.builder().index(1).status(BatchItemStatus.INVALID).message("name: empty").build())));
+
+        UUID naruto = writeBehind.submit(body("Naruto")).getTrackingId();
+        UUID invalid = writeBehind.submit(body("")).getTrackingId();
+        Assertions.assertThat(writeBehind.status(naruto).getStatus())
+                .isEqualTo(AnimeIngestStatus.PENDING);
+        Assertions.assertThat(registry.get("anime.write-behind.queue.depth").gauge().value())
+                .isEqualTo(2);
+
+        writeBehind.flushQueued();
+
+        Assertions.assertThat(writeBehind.status(naruto))
+                .extracting(AnimeIngestResponse::getStatus, AnimeIngestResponse::getId)
+                .containsExactly(AnimeIngestStatus.CREATED, 1L);
+        Assertions.assertThat(writeBehind.status(invalid).getStatus())
+                .isEqualTo(AnimeIngestStatus.FAILED);
+        Assertions.assertThat(registry.get("anime.write-behind.flush").timer().count())
+                .isEqualTo(1);
+        Mockito.verify(service).saveAll(List.of(body("Naruto"), body("")));
+    }
+
+    @Test
+    @DisplayName("Grava cada anime na sua própria transação quando a transação do lote falha")
+    void flushQueued_SavesOneByOne_WhenBatchFails() {
+        BDDMockito.when(service.saveAll(ArgumentMatchers.anyList())).thenThrow(new IllegalStateException("deadlock"));
+        BDDMockito.when(service.save(body("Naruto"))).thenReturn(AnimeCreator.createValidAnime());
+        BDDMockito.when(service.save(body("Bleach"))).thenThrow(new IllegalStateException("duplicate"));
+
+        UUID naruto = writeBehind.submit(body("Naruto")).getTrackingId();
+        UUID bleach = writeBehind.submit(body("Bleach")).getTrackingId();
+        writeBehind.flushQueued();
+
+        Assertions.assertThat(writeBehind.status(naruto).getStatus())
+                .isEqualTo(AnimeIngestStatus.CREATED);
+        Assertions.assertThat(writeBehind.status(bleach))
+                .extracting(AnimeIngestResponse::getStatus, AnimeIngestResponse::getMessage)
+                .containsExactly(AnimeIngestStatus.FAILED, "duplicate");
+    }
+
+    @Test
+    @DisplayName("Lança uma ServiceUnavailableException quando a fila está cheia")
+    void submit_ThrowsServiceUnavailableException_WhenQueueIsFull() {
+        writeBehind.submit(body("Naruto"));
+        writeBehind.submit(body("Bleach"));
+
+        Assertions.assertThatExceptionOfType(ServiceUnavailableException.class)
+                .isThrownBy(() -> writeBehind.submit(body("One Piece")));
+        Assertions.assertThat(registry.get("anime.write-behind.rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Lança uma BadRequestException quando o id de acompanhamento não existe")
+    void status_ThrowsBadRequestException_WhenTrackingIdIsUnknown() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> writeBehind.status(UUID.randomUUID()));
+    }
+
+    private static AnimePostRequestBody body(String name) {
+        return AnimePostRequestBody.builder().name(name).build();
+    }
+}
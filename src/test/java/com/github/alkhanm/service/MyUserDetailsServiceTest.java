@@ -0,0 +1,74 @@
+package com.github.alkhanm.service;
+
+import com.github.alkhanm.domain.MyUser;
+import com.github.alkhanm.repository.MyUserRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testes para: MyUserDetailsService")
+class MyUserDetailsServiceTest {
+    private static final MyUser USER = MyUser.builder()
+            .id(1L)
+            .name("admin supremo")
+            .username("Alkham")
+            .password("{noop}test")
+            .authorities("ROLE_USER")
+            .build();
+
+    @InjectMocks
+    private MyUserDetailsService service;
+
+    @Mock
+    private MyUserRepository repository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    @DisplayName("Publica um MyUserChangedEvent quando o usuário é salvo")
+    void save_PublishesMyUserChangedEvent_WhenSuccessful() {
+        BDDMockito.when(repository.save(USER)).thenReturn(USER);
+
+        service.save(USER);
+
+        ArgumentCaptor<MyUserChangedEvent> event = ArgumentCaptor.forClass(MyUserChangedEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        Assertions.assertThat(event.getValue())
+                .extracting(MyUserChangedEvent::getId, MyUserChangedEvent::getUsername)
+                .containsExactly(1L, "Alkham");
+    }
+
+    @Test
+    @DisplayName("Publica um MyUserChangedEvent quando o usuário é removido")
+    void delete_PublishesMyUserChangedEvent_WhenUserExists() {
+        BDDMockito.when(repository.findById(1L)).thenReturn(Optional.of(USER));
+
+        service.delete(1L);
+
+        Mockito.verify(repository).delete(USER);
+        Mockito.verify(eventPublisher).publishEvent(ArgumentMatchers.any(MyUserChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Não publica nenhum evento quando o usuário não existe")
+    void delete_DoesNothing_WhenUserDoesNotExist() {
+        BDDMockito.when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        service.delete(1L);
+
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.alkhanm.sql;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@DisplayName("Testes para: ReadWriteRoutingDataSource")
+class ReadWriteRoutingDataSourceTest {
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReadReplicas replicas;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        //Cada banco identifica a si mesmo, assim é possível saber para onde cada consulta foi enviada
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+        new JdbcTemplate(replica).execute("create table replication_lag (seconds bigint); insert into replication_lag values (0)");
+
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put("replica", replica);
+        replicas = new ReadReplicas(dataSources, "select seconds from replication_lag", null, Duration.ofSeconds(10));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replicas));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicas.close();
+        primary.shutdown();
+    }
+
+    @Test
+    @DisplayName("Envia as transações somente leitura para a réplica e as demais para o primário")
+    void getConnection_RoutesByTransactionType_WhenReplicaIsHealthy() {
+        Assertions.assertThat(serverInReadOnlyTransaction())
+                .isEqualTo("replica");
+        Assertions.assertThat(serverInWriteTransaction())
+                .isEqualTo("primary");
+        Assertions.assertThat(server())
+                .isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Envia as leituras para o primário quando a réplica está atrasada")
+    void getConnection_FallsBackToPrimary_WhenReplicaLags() {
+        new JdbcTemplate(replica).update("update replication_lag set seconds = 60");
+        replicas.checkHealth();
+
+        Assertions.assertThat(serverInReadOnlyTransaction())
+                .isEqualTo("primary");
+
+        new JdbcTemplate(replica).update("update replication_lag set seconds = 1");
+        replicas.checkHealth();
+
+        Assertions.assertThat(serverInReadOnlyTransaction())
+                .isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Envia as leituras para o primário quando a réplica está fora do ar")
+    void getConnection_FallsBackToPrimary_WhenReplicaFails() {
+        replica.shutdown();
+        replicas.checkHealth();
+
+        Assertions.assertThat(replicas.select())
+                .isNull();
+        Assertions.assertThat(serverInReadOnlyTransaction())
+                .isEqualTo("primary");
+    }
+
+    private String serverInReadOnlyTransaction() {
+        return readOnlyTransaction.execute(status -> server());
+    }
+
+    private String serverInWriteTransaction() {
+        return writeTransaction.execute(status -> server());
+    }
+
+    private String server() {
+        return jdbcTemplate.queryForObject("select name from server", String.class);
+    }
+
+    private static EmbeddedDatabase createDatabase(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + System.nanoTime())
+                .build();
+        new JdbcTemplate(database).execute("create table server (name varchar(20)); insert into server values ('" + name + "')");
+        return database;
+    }
+}
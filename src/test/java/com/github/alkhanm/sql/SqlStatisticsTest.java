@@ -0,0 +1,23 @@
+package com.github.alkhanm.sql;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Testes para: SqlStatistics")
+class SqlStatisticsTest {
+
+    @Test
+    @DisplayName("Aponta apenas as instruções executadas mais vezes do que o limite")
+    void getRepeated_ReturnsStatementsExecutedMoreThanTimes_WhenSuccessful() {
+        SqlStatistics statistics = new SqlStatistics();
+        for (int i = 0; i < 5; i++) statistics.record("select * from anime where id = ?", 1, true);
+        for (int i = 0; i < 6; i++) statistics.record("select * from my_user where id = ?", 1, false);
+
+        Assertions.assertThat(statistics.getRepeated(5))
+                .containsOnlyKeys("select * from my_user where id = ?")
+                .containsEntry("select * from my_user where id = ?", 6);
+        Assertions.assertThat(statistics.getStatements()).isEqualTo(11);
+        Assertions.assertThat(statistics.getReadOnlyStatements()).isEqualTo(5);
+    }
+}
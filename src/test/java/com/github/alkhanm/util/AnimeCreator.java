@@ -14,6 +14,7 @@ public class AnimeCreator {
         return Anime.builder()
                 .id(1L)
                 .name("Bleach")
+                .version(0L)
                 .build();
     }
 
@@ -21,6 +22,7 @@ public class AnimeCreator {
         return Anime.builder()
                 .id(1L)
                 .name("One Piece")
+                .version(0L)
                 .build();
     }
 }
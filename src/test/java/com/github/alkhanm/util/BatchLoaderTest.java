@@ -0,0 +1,75 @@
+package com.github.alkhanm.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@DisplayName("Testes para: BatchLoader")
+class BatchLoaderTest {
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+    //Simula o banco de dados: apenas os ids pares existem
+    private Map<Long, String> load(Collection<Long> ids) {
+        batches.add(new ArrayList<>(ids));
+        return ids.stream()
+                .filter(id -> id % 2 == 0)
+                .collect(Collectors.toMap(Function.identity(), id -> "Anime " + id));
+    }
+
+    @Test
+    @DisplayName("Resolve as buscas simultâneas por ids diferentes com uma única consulta")
+    void load_ResolvesConcurrentKeysInOneBatch_WhenWithinMaxSize() throws Exception {
+        int callers = 4;
+        //Janela longa: o lote é consultado quando fica cheio, e não por tempo
+        BatchLoader<Long, String> batchLoader = new BatchLoader<>("test", this::load, Duration.ofSeconds(5),
+                callers, new SimpleMeterRegistry());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (long id = 1; id <= callers; id++) {
+                long key = id;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return batchLoader.load(key);
+                }));
+            }
+            start.countDown();
+
+            Assertions.assertThat(results.get(0).get(5, TimeUnit.SECONDS)).isNull();
+            Assertions.assertThat(results.get(1).get(5, TimeUnit.SECONDS)).isEqualTo("Anime 2");
+            Assertions.assertThat(results.get(2).get(5, TimeUnit.SECONDS)).isNull();
+            Assertions.assertThat(results.get(3).get(5, TimeUnit.SECONDS)).isEqualTo("Anime 4");
+            Assertions.assertThat(batches).hasSize(1);
+            Assertions.assertThat(batches.get(0)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Consulta uma busca isolada quando a janela termina")
+    void load_ResolvesSingleKey_WhenWindowEnds() {
+        BatchLoader<Long, String> batchLoader = new BatchLoader<>("test", this::load, Duration.ofMillis(1),
+                100, new SimpleMeterRegistry());
+
+        Assertions.assertThat(batchLoader.load(2L)).isEqualTo("Anime 2");
+        Assertions.assertThat(batchLoader.load(4L)).isEqualTo("Anime 4");
+        Assertions.assertThat(batches).containsExactly(List.of(2L), List.of(4L));
+    }
+}
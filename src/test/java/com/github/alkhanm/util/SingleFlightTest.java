@@ -0,0 +1,73 @@
+package com.github.alkhanm.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Testes para: SingleFlight")
+class SingleFlightTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", registry);
+
+    @Test
+    @DisplayName("Executa uma única consulta quando várias chamadas com a mesma chave são simultâneas")
+    void execute_SharesOneCall_WhenCallsAreConcurrent() throws Exception {
+        int callers = 8;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "Naruto";
+                })));
+            }
+            //Libera a consulta apenas quando todas as outras chamadas já estão esperando por ela
+            while (coalesced() < callers - 1) Thread.sleep(5);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Naruto");
+            }
+            Assertions.assertThat(calls).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Executa uma nova consulta quando a anterior já terminou, inclusive com erro")
+    void execute_CallsAgain_WhenPreviousCallFinished() {
+        Assertions.assertThatIllegalStateException()
+                .isThrownBy(() -> singleFlight.execute(1L, () -> { throw new IllegalStateException(); }));
+
+        Assertions.assertThat(singleFlight.execute(1L, () -> "Naruto")).isEqualTo("Naruto");
+        Assertions.assertThat(singleFlight.execute(1L, () -> "Bleach")).isEqualTo("Bleach");
+        Assertions.assertThat(coalesced()).isZero();
+    }
+
+    private double coalesced() {
+        return registry.get(SingleFlight.METRIC_NAME).tag("name", "test").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}